@@ -0,0 +1,41 @@
+package com.demo.security.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Bounded pool for batch token verification; when full, the request thread does the work itself
+    @Bean
+    public ThreadPoolTaskExecutor tokenValidationExecutor(
+            @Value("${auth.batch-validate.pool-size:4}") int poolSize,
+            @Value("${auth.batch-validate.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("token-validate-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // Hashes passwords for bulk imports, kept apart from the login hashing pool so an import cannot starve logins
+    @Bean
+    public ThreadPoolTaskExecutor userImportHashExecutor(
+            @Value("${auth.user-import.hash-pool-size:0}") int poolSize,
+            @Value("${auth.user-import.hash-queue-capacity:500}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("user-import-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
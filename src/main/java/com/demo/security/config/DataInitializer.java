@@ -39,6 +39,7 @@ public class DataInitializer implements CommandLineRunner {
 
         Role adminRole = ensureRole("ROLE_ADMIN", "Administrator role");
         Role userRole = ensureRole("ROLE_USER", "Standard user role");
+        ensureRole("ROLE_GATEWAY", "Service accounts that validate tokens in bulk");
 
         ensureUser("admin", "123456", "admin@example.com", "Administrator", adminRole);
         ensureUser("user1", "123456", "user1@example.com", "User One", userRole);
@@ -1,18 +1,24 @@
 package com.demo.security.config;
 
+import com.demo.security.security.BoundedPasswordEncoder;
 import com.demo.security.security.JwtAuthenticationEntryPoint;
 import com.demo.security.security.JwtAuthenticationFilter;
+import com.demo.security.security.PasswordHashingExecutor;
+import com.demo.security.security.PublicRoutes;
 import com.demo.security.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -32,10 +38,12 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // BCrypt runs on a bounded pool instead of the calling servlet thread
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor);
     }
 
     @Bean
@@ -52,7 +60,32 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    // Static assets skip the security filters entirely
     @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(PublicRoutes.STATIC_RESOURCES);
+    }
+
+    // Anonymous pages and APIs: no JWT parsing, no session, no request cache
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(PublicRoutes.PUBLIC_ENDPOINTS)
+                .csrf(AbstractHttpConfigurer::disable)
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .requestCache(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
@@ -64,28 +97,9 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
-                        // Allow all static resources and pages
-                        .requestMatchers(
-                                "/",
-                                "/index",
-                                "/index.html",
-                                "/login",
-                                "/login.html",
-                                "/register",
-                                "/register.html",
-                                "/products",
-                                "/products.html",
-                                "/admin",
-                                "/admin.html",
-                                "/favicon.ico",
-                                "/css/**",
-                                "/js/**",
-                                "/images/**"
-                        ).permitAll()
-                        // Allow all /api/auth/** endpoints (login, register, refresh)
-                        .requestMatchers("/api/auth/**").permitAll()
-                        // Allow all /api/public/** endpoints without authentication
-                        .requestMatchers("/api/public/**").permitAll()
+                        // Public pages, /api/auth/** and /api/public/** are served by publicFilterChain
+                        // Batch token validation is for gateways, not anonymous callers
+                        .requestMatchers(PublicRoutes.SERVICE_ENDPOINTS).hasAnyRole("GATEWAY", "ADMIN")
                         // Require ADMIN role for /api/admin/**
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         // Require USER or ADMIN role for /api/user/**
@@ -99,6 +113,15 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // The JWT filter only runs inside the authenticated chain, not as a servlet filter on every request
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -111,6 +134,7 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "ETag", "Last-Modified"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L); // Cache preflight for 1 hour
 
@@ -0,0 +1,49 @@
+package com.demo.security.controller;
+
+import com.demo.security.security.AccessTokenDenylist;
+import com.demo.security.security.LoginThrottle;
+import com.demo.security.security.PasswordHashingExecutor;
+import com.demo.security.security.VerifiedTokenCache;
+import com.demo.security.service.CustomUserDetailsService;
+import com.demo.security.service.ProductSearchService;
+import com.demo.security.service.ProductSuggestService;
+import com.demo.security.service.RefreshTokenPurgeJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdminMetricsController {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenPurgeJob refreshTokenPurgeJob;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final LoginThrottle loginThrottle;
+    private final ProductSearchService productSearchService;
+    private final ProductSuggestService productSuggestService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("userDetailsCache", userDetailsService.getCacheStats());
+        metrics.put("verifiedTokenCache", verifiedTokenCache.getStats());
+        metrics.put("passwordHashing", passwordHashingExecutor.getStats());
+        metrics.put("refreshTokenPurge", refreshTokenPurgeJob.getStats());
+        metrics.put("accessTokenDenylist", accessTokenDenylist.getStats());
+        metrics.put("loginThrottle", loginThrottle.getStats());
+        metrics.put("productSearch", productSearchService.getStats());
+        metrics.put("productSuggest", productSuggestService.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+}
@@ -8,9 +8,9 @@ import com.demo.security.entity.Language;
 import com.demo.security.entity.Product;
 import com.demo.security.entity.ProductCategory;
 import com.demo.security.mapper.ProductMapper;
-import com.demo.security.repository.LanguageRepository;
 import com.demo.security.service.ProductCategoryService;
 import com.demo.security.service.ProductService;
+import com.demo.security.service.ReferenceDataRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,7 +20,6 @@ import com.demo.security.entity.ProductTranslation;
 import com.demo.security.entity.ProductTranslationId;
 import jakarta.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin/products")
@@ -30,7 +29,7 @@ public class AdminProductController {
 
     private final ProductService productService;
     private final ProductCategoryService categoryService;
-    private final LanguageRepository languageRepository;
+    private final ReferenceDataRegistry referenceData;
 
     @PostMapping
     public ResponseEntity<?> createProduct(@Valid @RequestBody ProductCreateRequest req) {
@@ -40,7 +39,7 @@ public class AdminProductController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(MessageResponse.builder().message("Invalid category ID").status(400).build());
             }
-            Language lang = languageRepository.findById("vi").orElse(null);
+            Language lang = referenceData.findLanguage("vi").orElse(null);
 
             // Create product WITHOUT translation first
             Product p = new Product();
@@ -87,7 +86,7 @@ public class AdminProductController {
                             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                                     .body(MessageResponse.builder().message("Invalid category ID").status(400).build());
                         }
-                        Language lang = languageRepository.findById("vi").orElse(null);
+                        Language lang = referenceData.findLanguage("vi").orElse(null);
 
                         ProductMapper.applyUpdateRequest(existingProduct, req, category, lang);
                         Product saved = productService.saveProduct(existingProduct);
@@ -127,11 +126,7 @@ public class AdminProductController {
 
     @GetMapping
     public ResponseEntity<List<ProductDTO>> listAll() {
-        Language lang = languageRepository.findById("vi").orElse(null);
-        String langId = lang != null ? lang.getLanguageID() : null;
-        // Use translation-aware fetch to ensure translations and category translations are loaded
-        List<Product> products = productService.getAllProductsWithTranslation(langId);
-        List<ProductDTO> dtos = products.stream().map(p -> ProductMapper.toDto(p, langId)).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        // Projected straight into DTOs with only the "vi" translations
+        return ResponseEntity.ok(productService.getAllProductDtos("vi"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.demo.security.controller;
+
+import com.demo.security.dto.ErrorResponse;
+import com.demo.security.dto.UserImportReport;
+import com.demo.security.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    private final UserImportService userImportService;
+
+    /**
+     * Bulk-create users from the raw request body, read as a stream.
+     * CSV needs a header with username, email, fullName and password; NDJSON has one
+     * registration object per line. Bad rows are listed in the report and skipped.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importUsers(HttpServletRequest request) {
+        boolean ndjson = request.getContentType().startsWith("application/x-ndjson");
+        try {
+            UserImportReport report = userImportService.importUsers(request.getInputStream(), ndjson);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Import failed: " + e.getMessage()));
+        }
+    }
+}
@@ -2,17 +2,26 @@ package com.demo.security.controller;
 
 import com.demo.security.dto.*;
 import com.demo.security.entity.RefreshToken;
-import com.demo.security.entity.Role;
 import com.demo.security.entity.User;
+import com.demo.security.exception.DuplicateUserException;
+import com.demo.security.exception.PasswordHashingBusyException;
+import com.demo.security.security.AccessTokenVerifier;
+import com.demo.security.security.JwtKeyManager;
 import com.demo.security.security.JwtUtil;
+import com.demo.security.security.LoginThrottle;
+import com.demo.security.security.VerifiedToken;
 import com.demo.security.service.CustomUserDetailsService;
 import com.demo.security.service.RefreshTokenService;
-import com.demo.security.service.RoleService;
+import com.demo.security.service.TokenValidationService;
 import com.demo.security.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -21,8 +30,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -32,12 +42,23 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
     private final UserService userService;
-    private final RoleService roleService;
     private final JwtUtil jwtUtil;
+    private final AccessTokenVerifier tokenVerifier;
+    private final JwtKeyManager keyManager;
+    private final TokenValidationService tokenValidationService;
     private final RefreshTokenService refreshTokenService;
+    private final LoginThrottle loginThrottle;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // Turn away over-limit attempts before any password hashing happens
+        long retryAfterMs = loginThrottle.tryAcquire(loginRequest.getUsername(), request.getRemoteAddr());
+        if (retryAfterMs > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(retryAfterMs + 999)))
+                    .body(new ErrorResponse("Too many login attempts. Please try again later."));
+        }
+
         try {
             // Authenticate user
             Authentication authentication = authenticationManager.authenticate(
@@ -54,7 +75,7 @@ public class AuthController {
             String accessToken = jwtUtil.generateAccessToken(userDetails);
 
             // Create and save refresh token
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(userDetails.getUsername());
+            String refreshToken = refreshTokenService.createRefreshToken(userDetails.getUsername());
 
             // Extract roles
             String[] roles = userDetails.getAuthorities().stream()
@@ -64,7 +85,7 @@ public class AuthController {
             // Build response
             TokenResponse tokenResponse = TokenResponse.builder()
                     .accessToken(accessToken)
-                    .refreshToken(refreshToken.getToken())
+                    .refreshToken(refreshToken)
                     .tokenType("Bearer")
                     .accessTokenExpiresIn(jwtUtil.getAccessTokenExpiration())
                     .refreshTokenExpiresIn(jwtUtil.getRefreshTokenExpiration())
@@ -78,6 +99,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ErrorResponse("Invalid username or password"));
         } catch (Exception e) {
+            rethrowIfHashingBusy(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Authentication failed: " + e.getMessage()));
         }
@@ -86,43 +108,14 @@ public class AuthController {
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody UserRegistrationDTO registrationDto) {
         try {
-            // Check if username exists
-            if (userService.existsByUsername(registrationDto.getUsername())) {
-                return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Username already exists"));
-            }
-
-            // Check if email exists
-            if (userService.existsByEmail(registrationDto.getEmail())) {
-                return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Email already registered"));
-            }
-
-            // Check if passwords match
+            // Check if passwords match (before anything touches the database)
             if (!registrationDto.getPassword().equals(registrationDto.getConfirmPassword())) {
                 return ResponseEntity.badRequest()
                         .body(new ErrorResponse("Passwords do not match"));
             }
 
-            // Create new user
-            User user = User.builder()
-                    .username(registrationDto.getUsername())
-                    .password(registrationDto.getPassword())
-                    .email(registrationDto.getEmail())
-                    .fullName(registrationDto.getFullName())
-                    .enabled(true)
-                    .build();
-
-            // Assign USER role
-            Role userRole = roleService.findByRoleName("ROLE_USER")
-                    .orElseThrow(() -> new RuntimeException("Role not found"));
-
-            Set<Role> roles = new HashSet<>();
-            roles.add(userRole);
-            user.setRoles(roles);
-
-            // Save user
-            userService.saveUser(user);
+            // Insert user with the USER role; duplicate username/email surface as constraint violations
+            userService.registerUser(registrationDto);
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(MessageResponse.builder()
@@ -130,7 +123,11 @@ public class AuthController {
                             .status(201)
                             .build());
 
+        } catch (DuplicateUserException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
+            rethrowIfHashingBusy(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Registration failed: " + e.getMessage()));
         }
@@ -151,6 +148,11 @@ public class AuthController {
             User user = refreshToken.getUser();
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
 
+            // Refresh is where account state is re-checked when requests are authenticated statelessly
+            if (!userDetails.isEnabled()) {
+                throw new RuntimeException("User account is disabled");
+            }
+
             // Generate new access token
             String newAccessToken = jwtUtil.generateAccessToken(userDetails);
 
@@ -182,11 +184,20 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@Valid @RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<?> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                    @RequestHeader(value = "Authorization", required = false) String authHeader) {
         try {
             String refreshToken = request.getRefreshToken();
             refreshTokenService.deleteByToken(refreshToken);
 
+            // Also kill the access token the client is holding, if it sent one
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                VerifiedToken verified = tokenVerifier.verify(authHeader.substring(7));
+                if (verified != null) {
+                    tokenVerifier.revoke(verified);
+                }
+            }
+
             return ResponseEntity.ok(new MessageResponse("Logout successful"));
 
         } catch (Exception e) {
@@ -205,11 +216,11 @@ public class AuthController {
 
             String token = authHeader.substring(7);
 
-            if (jwtUtil.validateTokenStructure(token)) {
-                String username = jwtUtil.getUsernameFromToken(token);
+            VerifiedToken verified = tokenVerifier.verify(token);
+            if (verified != null) {
                 return ResponseEntity.ok(MessageResponse.builder()
                         .message("Token is valid")
-                        .data(username)
+                        .data(verified.getSubject())
                         .build());
             } else {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -221,4 +232,27 @@ public class AuthController {
                     .body(new ErrorResponse("Token validation failed"));
         }
     }
+
+    // Validate many tokens in one round trip; callers authenticate as an API gateway service account
+    @PostMapping("/validate/batch")
+    @PreAuthorize("hasAnyRole('GATEWAY', 'ADMIN')")
+    public ResponseEntity<List<TokenValidationResult>> validateTokens(@Valid @RequestBody TokenBatchValidateRequest request) {
+        return ResponseEntity.ok(tokenValidationService.validateAll(request.getTokens()));
+    }
+
+    // Let GlobalExceptionHandler turn a saturated hashing pool into 503 + Retry-After
+    private void rethrowIfHashingBusy(Exception e) {
+        PasswordHashingBusyException busy = PasswordHashingBusyException.findIn(e);
+        if (busy != null) {
+            throw busy;
+        }
+    }
+
+    // Public signing keys so other services can verify tokens locally instead of calling /validate
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Map.of("keys", keyManager.getJwks()));
+    }
 }
@@ -1,81 +1,223 @@
 package com.demo.security.controller;
 
-import com.demo.security.dto.ProductDTO;
-import com.demo.security.entity.Language;
-import com.demo.security.entity.Product;
-import com.demo.security.entity.ProductCategory;
-import com.demo.security.mapper.ProductMapper;
-import com.demo.security.repository.LanguageRepository;
-import com.demo.security.service.ProductCategoryService;
-import com.demo.security.service.ProductService;
+import com.demo.security.dto.ErrorResponse;
+import com.demo.security.dto.ProductFilterCriteria;
+import com.demo.security.dto.ProductFilterResult;
+import com.demo.security.service.CatalogService;
+import com.demo.security.service.ProductSearchService;
+import com.demo.security.service.ProductSuggestService;
+import com.demo.security.service.ReferenceDataRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.function.Function;
 
+// Served entirely from the in-memory catalog; none of these endpoints touch the database.
+// Responses carry an ETag derived from the catalog version, so revalidation costs a 304 with no body;
+// list and category bodies are written from JSON the catalog has already encoded and compressed.
 @RestController
 @RequestMapping("/api/public/products")
 @RequiredArgsConstructor
 public class PublicProductController {
 
-    private final ProductService productService;
-    private final ProductCategoryService categoryService;
-    private final LanguageRepository languageRepository;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Pages of the default size are the ones the catalog memoizes
+    private static final String DEFAULT_SIZE = "" + CatalogService.DEFAULT_PAGE_SIZE;
 
+    // Shared caches may store responses but must revalidate them on every use
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private final CatalogService catalogService;
+    private final ProductSearchService productSearchService;
+    private final ProductSuggestService productSuggestService;
+    private final ReferenceDataRegistry referenceData;
+
+    @Value("${catalog.fallback-language:vi}")
+    private String fallbackLanguageId;
+
+    // Paged by product ID; the cursor for the next page comes back in X-Next-Cursor (absent on the last page)
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts(@RequestParam(value = "lang", required = false, defaultValue = "vi") String langId) {
-        Language lang = languageRepository.findById(langId).orElse(null);
-        String languageId = lang != null ? lang.getLanguageID() : "vi";
-        List<Product> products = productService.getAllProductsWithTranslation(languageId);
-        List<ProductDTO> dtos = products.stream().map(p -> ProductMapper.toDto(p, languageId)).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<?> getAllProducts(@RequestParam(value = "lang", required = false) String langId,
+                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "size", required = false, defaultValue = DEFAULT_SIZE) int size,
+                                            WebRequest webRequest) {
+        String languageId = referenceData.resolveLanguageId(langId, fallbackLanguageId);
+        return conditional(webRequest, languageId, true, gzip -> pageResponse(null, cursor, size, languageId, gzip));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Integer id, @RequestParam(value = "lang", required = false, defaultValue = "vi") String langId) {
-        Language lang = languageRepository.findById(langId).orElse(null);
-        String languageId = lang != null ? lang.getLanguageID() : "vi";
-        Product p = productService.getProductByIdWithTranslation(id, languageId);
-        if (p == null) return ResponseEntity.notFound().build();
-        return ResponseEntity.ok(ProductMapper.toDto(p, languageId));
+    public ResponseEntity<?> getProductById(@PathVariable Integer id, @RequestParam(value = "lang", required = false) String langId,
+                                            WebRequest webRequest) {
+        String languageId = referenceData.resolveLanguageId(langId, fallbackLanguageId);
+        return conditional(webRequest, languageId, false, gzip -> catalogService.getProduct(languageId, id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable Integer categoryId, @RequestParam(value = "lang", required = false, defaultValue = "vi") String langId) {
-        Language lang = languageRepository.findById(langId).orElse(null);
-        String languageId = lang != null ? lang.getLanguageID() : "vi";
-        List<Product> products = productService.getProductsByCategory(categoryId);
-        List<ProductDTO> dtos = products.stream().map(p -> ProductMapper.toDto(p, languageId)).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<?> getProductsByCategory(@PathVariable Integer categoryId,
+                                                   @RequestParam(value = "lang", required = false) String langId,
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                   @RequestParam(value = "size", required = false, defaultValue = DEFAULT_SIZE) int size,
+                                                   WebRequest webRequest) {
+        String languageId = referenceData.resolveLanguageId(langId, fallbackLanguageId);
+        return conditional(webRequest, languageId, true, gzip -> pageResponse(categoryId, cursor, size, languageId, gzip));
+    }
+
+    // Ranked full-text search; accents are optional in the query ("ca phe" finds "Cà phê")
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(@RequestParam("q") String query,
+                                            @RequestParam(value = "lang", required = false) String langId,
+                                            @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Search query must not be empty"));
+        }
+        String languageId = referenceData.resolveLanguageId(langId, fallbackLanguageId);
+        return ResponseEntity.ok(productSearchService.search(languageId, query, limit));
+    }
+
+    // Paged by product ID like the listing; total and facet counts cover every match
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterProducts(@RequestParam(value = "lang", required = false) String langId,
+                                            @RequestParam(value = "categoryId", required = false) Integer categoryId,
+                                            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+                                            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+                                            @RequestParam(value = "minWeight", required = false) BigDecimal minWeight,
+                                            @RequestParam(value = "maxWeight", required = false) BigDecimal maxWeight,
+                                            @RequestParam(value = "inStock", required = false) Boolean inStock,
+                                            @RequestParam(value = "shippable", required = false) Boolean shippable,
+                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "size", required = false, defaultValue = DEFAULT_SIZE) int size,
+                                            WebRequest webRequest) {
+        String languageId = referenceData.resolveLanguageId(langId, fallbackLanguageId);
+        ProductFilterCriteria criteria = ProductFilterCriteria.builder()
+                .categoryId(categoryId)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minWeight(minWeight)
+                .maxWeight(maxWeight)
+                .inStock(inStock)
+                .shippable(shippable)
+                .build();
+        return conditional(webRequest, languageId, false, gzip -> {
+            ProductFilterResult result;
+            try {
+                result = catalogService.filter(languageId, criteria, cursor, size);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (result.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, result.getNextCursor());
+            }
+            return response.body(result);
+        });
+    }
+
+    // Typeahead on product names: matches the start of any word, most stock first
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestProducts(@RequestParam("prefix") String prefix,
+                                             @RequestParam(value = "lang", required = false) String langId,
+                                             @RequestParam(value = "limit", required = false, defaultValue = "10") int limit) {
+        String languageId = referenceData.resolveLanguageId(langId, fallbackLanguageId);
+        return ResponseEntity.ok(productSuggestService.suggest(languageId, prefix, limit));
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<List<com.demo.security.dto.ProductCategoryDTO>> getAllCategories(@RequestParam(value = "lang", required = false, defaultValue = "vi") String langId) {
-        Language lang = languageRepository.findById(langId).orElse(null);
-        String languageId = lang != null ? lang.getLanguageID() : "vi";
-        List<ProductCategory> categories = categoryService.getAllCategoriesWithTranslation();
-
-        List<com.demo.security.dto.ProductCategoryDTO> dtos = categories.stream().map(c -> {
-            String name = null;
-            if (c.getTranslations() != null && !c.getTranslations().isEmpty()) {
-                name = c.getTranslations().stream()
-                        .filter(t -> t.getLanguage() != null && t.getLanguage().getLanguageID().equals(languageId))
-                        .map(t -> t.getCategoryName())
-                        .findFirst()
-                        .orElseGet(() -> c.getTranslations().stream()
-                                .map(t -> t.getCategoryName())
-                                .findFirst()
-                                .orElse(null));
+    public ResponseEntity<?> getAllCategories(@RequestParam(value = "lang", required = false) String langId,
+                                              WebRequest webRequest) {
+        String languageId = referenceData.resolveLanguageId(langId, fallbackLanguageId);
+        return conditional(webRequest, languageId, true,
+                gzip -> encodedResponse(catalogService.getEncodedCategories(languageId), gzip));
+    }
+
+    // The response built for the request's coding, or a 304 when the client's copy is current.
+    // The ETag names the catalog version and the coding actually sent (strong ETags must differ per
+    // content coding), so the body is resolved first; a missing product or a bad cursor never gets
+    // as far as a 304. Only compressible responses vary by Accept-Encoding
+    private ResponseEntity<?> conditional(WebRequest webRequest, String languageId, boolean compressible,
+                                          Function<Boolean, ResponseEntity<?>> response) {
+        // Read before the data, see CatalogService#getVersion
+        CatalogService.CatalogVersion version = catalogService.getVersion();
+        ResponseEntity<?> result = response.apply(compressible && acceptsGzip(webRequest));
+        if (!result.getStatusCode().is2xxSuccessful()) {
+            return result;
+        }
+        boolean gzip = "gzip".equals(result.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        String etag = "\"v" + Long.toHexString(version.version()) + "-" + languageId + (gzip ? "-gz" : "") + "\"";
+        if (webRequest.checkNotModified(etag, version.lastModified())) {
+            ResponseEntity.HeadersBuilder<?> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(version.lastModified())
+                    .cacheControl(CACHE_CONTROL);
+            if (compressible) {
+                notModified.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            }
+            return notModified.build();
+        }
+        return ResponseEntity.status(result.getStatusCode())
+                .headers(result.getHeaders())
+                .eTag(etag)
+                .lastModified(version.lastModified())
+                .cacheControl(CACHE_CONTROL)
+                .body(result.getBody());
+    }
+
+    private ResponseEntity<?> pageResponse(Integer categoryId, String cursor, int size, String languageId, boolean gzip) {
+        CatalogService.EncodedBody page;
+        try {
+            page = catalogService.getEncodedPage(languageId, categoryId, cursor, size, gzip);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+        return encodedResponse(page, gzip);
+    }
+
+    // Raw bytes skip the Jackson converter; headers describe exactly what is written
+    private ResponseEntity<byte[]> encodedResponse(CatalogService.EncodedBody body, boolean gzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (body.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, body.nextCursor());
+        }
+        byte[] bytes = body.json();
+        if (gzip && body.gzip() != null) {
+            bytes = body.gzip();
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.contentLength(bytes.length).body(bytes);
+    }
+
+    // gzip listed in Accept-Encoding (or *) without q=0
+    private static boolean acceptsGzip(WebRequest webRequest) {
+        String header = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] params = part.trim().toLowerCase(Locale.ROOT).split(";");
+            String coding = params[0].trim();
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0{0,3})?")) {
+                    return false;
+                }
             }
-            return com.demo.security.dto.ProductCategoryDTO.builder()
-                    .productCategoryID(c.getProductCategoryID())
-                    .categoryName(name)
-                    .canBeShipped(c.getCanBeShipped())
-                    .build();
-        }).collect(Collectors.toList());
-
-        return ResponseEntity.ok(dtos);
+            return true;
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
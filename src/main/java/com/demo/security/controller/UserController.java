@@ -1,13 +1,20 @@
 package com.demo.security.controller;
 
-import com.demo.security.entity.User;
+import com.demo.security.dto.UserProfileDTO;
 import com.demo.security.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/user")
@@ -16,18 +23,36 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getUserProfile() {
+    public ResponseEntity<?> getUserProfile(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
 
-        return userService.getUserByUsername(username)
-                .map(user -> {
-                    // Remove password before sending
-                    user.setPassword(null);
-                    return ResponseEntity.ok(user);
+        return userService.getProfile(username)
+                .<ResponseEntity<?>>map(profile -> {
+                    // The tag is a digest of the exact body, so any change to the profile or its roles
+                    // changes it, however coarse or missing UpdatedDate is
+                    byte[] json = serialize(profile);
+                    String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+                    if (webRequest.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(etag)
+                            .cacheControl(CacheControl.noCache().cachePrivate())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(json);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    private byte[] serialize(UserProfileDTO profile) {
+        try {
+            return objectMapper.writeValueAsBytes(profile);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user profile", e);
+        }
+    }
 }
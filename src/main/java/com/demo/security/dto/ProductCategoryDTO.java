@@ -2,16 +2,15 @@ package com.demo.security.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-@Data
+// Immutable, like ProductDTO: shared by every reader of a catalog snapshot
+@Value
 @Builder
-@NoArgsConstructor
 @AllArgsConstructor
 public class ProductCategoryDTO {
-    private Integer productCategoryID;
-    private String categoryName;
-    private Boolean canBeShipped;
+    Integer productCategoryID;
+    String categoryName;
+    Boolean canBeShipped;
 }
 
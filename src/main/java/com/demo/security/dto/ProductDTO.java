@@ -2,23 +2,23 @@ package com.demo.security.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
 import java.math.BigDecimal;
 
-@Data
-@NoArgsConstructor
+// Immutable: the in-memory catalog shares one instance across every reader of a snapshot.
+// Constructor argument order is used by the JPQL projections in ProductRepository
+@Value
 @AllArgsConstructor
 @Builder
 public class ProductDTO {
-    private Integer productID;
-    private BigDecimal price;
-    private BigDecimal weight;
-    private Integer productCategoryID;
-    private String categoryName;
-    private Integer stockQuantity;
-    private String imageUrl;
-    private String productName; // translation
+    Integer productID;
+    BigDecimal price;
+    BigDecimal weight;
+    Integer productCategoryID;
+    String categoryName;
+    Integer stockQuantity;
+    String imageUrl;
+    String productName; // translation
 }
 
@@ -0,0 +1,23 @@
+package com.demo.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Null fields do not filter; ranges are inclusive
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterCriteria {
+    private Integer categoryId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal minWeight;
+    private BigDecimal maxWeight;
+    private Boolean inStock;
+    private Boolean shippable;
+}
@@ -0,0 +1,28 @@
+package com.demo.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// One page of matches; total covers every match, not just this page. Each facet count (and the
+// price range) covers the matches of all the other criteria, ignoring the facet's own filter
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResult {
+    private List<ProductDTO> products;
+    private String nextCursor;
+    private int total;
+    // categoryId -> matches in that category, category filter ignored
+    private Map<Integer, Integer> categoryCounts;
+    private int inStockCount;
+    private int shippableCount;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
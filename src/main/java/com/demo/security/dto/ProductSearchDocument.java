@@ -0,0 +1,16 @@
+package com.demo.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Text of one product in one language (with fallback), as fed to the search index
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchDocument {
+    private Integer productID;
+    private String productName;
+    private String description;
+    private String categoryName;
+}
@@ -1,5 +1,6 @@
 package com.demo.security.dto;
 
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -17,7 +18,9 @@ public class ProductUpdateRequest {
     @NotNull
     private Integer productID;
     @NotNull
+    @DecimalMin("0")
     private BigDecimal price;
+    @DecimalMin("0")
     private BigDecimal weight;
     @NotNull
     private Integer productCategoryID;
@@ -0,0 +1,18 @@
+package com.demo.security.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenBatchValidateRequest {
+
+    @NotEmpty(message = "At least one token is required")
+    @Size(max = 500, message = "At most 500 tokens per batch")
+    private List<String> tokens;
+}
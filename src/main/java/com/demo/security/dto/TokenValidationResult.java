@@ -0,0 +1,18 @@
+package com.demo.security.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenValidationResult {
+
+    private boolean valid;
+    private String subject;
+    private List<String> roles;
+    private Long expiresIn; // remaining lifetime in milliseconds
+}
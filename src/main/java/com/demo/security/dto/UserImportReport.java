@@ -0,0 +1,26 @@
+package com.demo.security.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserImportReport {
+
+    private int total;
+    private int imported;
+    private int failed;
+    private List<RowError> errors; // capped; failed holds the full count
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        private int line;
+        private String username;
+        private String message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.demo.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileDTO {
+    private Integer userID;
+    private String username;
+    private String email;
+    private String fullName;
+    private Boolean enabled;
+    private LocalDateTime createdDate;
+    private LocalDateTime updatedDate;
+    private List<String> roles;
+}
@@ -0,0 +1,18 @@
+package com.demo.security.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read projection for the profile endpoint; column aliases in
+ * {@code UserRepository.findProfileByUsername} must match these getters.
+ */
+public interface UserProfileView {
+    Integer getUserID();
+    String getUsername();
+    String getEmail();
+    String getFullName();
+    Boolean getEnabled();
+    LocalDateTime getCreatedDate();
+    LocalDateTime getUpdatedDate();
+    String getRoleNames(); // comma-separated, sorted
+}
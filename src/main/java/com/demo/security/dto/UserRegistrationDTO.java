@@ -17,6 +17,7 @@ public class UserRegistrationDTO {
 
     @NotBlank(message = "Email is required")
     @Email(message = "Please provide a valid email address")
+    @Size(max = 100, message = "Email must be at most 100 characters")
     private String email;
 
     @NotBlank(message = "Full name is required")
@@ -0,0 +1,32 @@
+package com.demo.security.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "JwtSigningKey")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JwtSigningKey {
+
+    @Id
+    @Column(name = "Kid", length = 64)
+    private String kid;
+
+    @Column(name = "Algorithm", nullable = false, length = 10)
+    private String algorithm;
+
+    // Base64 X.509 SubjectPublicKeyInfo
+    @Column(name = "PublicKey", nullable = false, columnDefinition = "TEXT")
+    private String publicKey;
+
+    // PKCS#8 encrypted with AES-GCM under the configured key-encryption key (see JwtKeyManager)
+    @Column(name = "PrivateKey", nullable = false, columnDefinition = "TEXT")
+    private String privateKey;
+
+    @Column(name = "CreatedDate", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+}
@@ -16,8 +16,9 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer tokenID;
 
-    @Column(nullable = false, unique = true, length = 500)
-    private String token;
+    // SHA-256 of the token handed to the client; the raw token is never stored
+    @Column(nullable = false, unique = true, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
 
     @ManyToOne
     @JoinColumn(name = "UserID", nullable = false)
@@ -0,0 +1,22 @@
+package com.demo.security.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "RevokedAccessToken")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedAccessToken {
+
+    @Id
+    @Column(name = "Jti", length = 36)
+    private String jti;
+
+    // Expiry of the revoked token; the row is useless afterwards
+    @Column(name = "ExpiresAt", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,22 @@
+package com.demo.security.event;
+
+/**
+ * Published inside the transaction that changed catalog data; listeners act after commit.
+ *
+ * @param productId the product created, updated or deleted, or {@code null} when the change
+ *                  can affect many products (e.g. a category was renamed or removed)
+ */
+public record CatalogChangedEvent(Integer productId) {
+
+    public static CatalogChangedEvent product(Integer productId) {
+        return new CatalogChangedEvent(productId);
+    }
+
+    public static CatalogChangedEvent all() {
+        return new CatalogChangedEvent(null);
+    }
+
+    public boolean isFullRebuild() {
+        return productId == null;
+    }
+}
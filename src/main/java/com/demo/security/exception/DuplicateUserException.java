@@ -0,0 +1,12 @@
+package com.demo.security.exception;
+
+/**
+ * Thrown when an insert hits the UNIQUE constraint on Username or Email.
+ * The message is the one shown to the client.
+ */
+public class DuplicateUserException extends RuntimeException {
+
+    public DuplicateUserException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.demo.security.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated and a hash cannot be scheduled in time.
+ * Mapped to 503 with a Retry-After header so clients back off instead of piling up.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    // The authentication manager may wrap the exception; look through the cause chain
+    public static PasswordHashingBusyException findIn(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof PasswordHashingBusyException busy) {
+                return busy;
+            }
+        }
+        return null;
+    }
+}
@@ -15,18 +15,10 @@ public class ProductMapper {
     public static ProductDTO toDto(Product p, String languageId) {
         if (p == null) return null;
 
-        ProductDTO dto = ProductDTO.builder()
-                .productID(p.getProductID())
-                .price(p.getPrice())
-                .weight(p.getWeight())
-                .productCategoryID(p.getCategory() != null ? p.getCategory().getProductCategoryID() : null)
-                .stockQuantity(p.getStockQuantity())
-                .imageUrl(p.getImageUrl())
-                .build();
-
         // Get category name from translations (Set instead of List)
+        String categoryName = null;
         if (p.getCategory() != null && p.getCategory().getTranslations() != null && !p.getCategory().getTranslations().isEmpty()) {
-            String categoryName = p.getCategory().getTranslations().stream()
+            categoryName = p.getCategory().getTranslations().stream()
                     .filter(t -> t.getLanguage() != null && (languageId == null || t.getLanguage().getLanguageID().equals(languageId)))
                     .map(t -> t.getCategoryName())
                     .findFirst()
@@ -34,23 +26,33 @@ public class ProductMapper {
                             .map(t -> t.getCategoryName())
                             .findFirst()
                             .orElse(null));
-            dto.setCategoryName(categoryName);
         }
 
         // Get product name from translations (Set instead of List)
+        String productName = null;
         if (languageId != null && p.getTranslations() != null && !p.getTranslations().isEmpty()) {
-            Optional<ProductTranslation> tr = p.getTranslations().stream()
+            productName = p.getTranslations().stream()
                     .filter(t -> t.getId() != null && t.getId().getLanguageID().equals(languageId))
-                    .findFirst();
-            tr.ifPresent(t -> dto.setProductName(t.getProductName()));
+                    .findFirst()
+                    .map(ProductTranslation::getProductName)
+                    .orElse(null);
         } else if (p.getTranslations() != null && !p.getTranslations().isEmpty()) {
-            p.getTranslations().stream()
+            productName = p.getTranslations().stream()
                     .map(ProductTranslation::getProductName)
                     .findFirst()
-                    .ifPresent(dto::setProductName);
+                    .orElse(null);
         }
 
-        return dto;
+        return ProductDTO.builder()
+                .productID(p.getProductID())
+                .price(p.getPrice())
+                .weight(p.getWeight())
+                .productCategoryID(p.getCategory() != null ? p.getCategory().getProductCategoryID() : null)
+                .categoryName(categoryName)
+                .stockQuantity(p.getStockQuantity())
+                .imageUrl(p.getImageUrl())
+                .productName(productName)
+                .build();
     }
 
     public static Product fromCreateRequest(ProductCreateRequest r, ProductCategory category, Language language) {
@@ -1,8 +1,10 @@
 package com.demo.security.repository;
 
+import com.demo.security.dto.ProductCategoryDTO;
 import com.demo.security.entity.ProductCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -11,4 +13,13 @@ public interface ProductCategoryRepository extends JpaRepository<ProductCategory
     @Query("SELECT DISTINCT c FROM ProductCategory c " +
             "LEFT JOIN FETCH c.translations t")
     List<ProductCategory> findAllWithTranslation();
+
+    // Category name in :lang, falling back to :fallback; one row per category
+    @Query("SELECT new com.demo.security.dto.ProductCategoryDTO(" +
+            "c.productCategoryID, COALESCE(t.categoryName, f.categoryName), c.canBeShipped) " +
+            "FROM ProductCategory c " +
+            "LEFT JOIN ProductCategoryTranslation t ON t.id.productCategoryID = c.productCategoryID AND t.id.languageID = :lang " +
+            "LEFT JOIN ProductCategoryTranslation f ON f.id.productCategoryID = c.productCategoryID AND f.id.languageID = :fallback " +
+            "ORDER BY c.productCategoryID")
+    List<ProductCategoryDTO> findAllDtos(@Param("lang") String languageId, @Param("fallback") String fallbackLanguageId);
 }
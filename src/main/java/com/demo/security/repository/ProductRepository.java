@@ -1,24 +1,58 @@
 package com.demo.security.repository;
 
+import com.demo.security.dto.ProductDTO;
+import com.demo.security.dto.ProductSearchDocument;
 import com.demo.security.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 
-    List<Product> findByCategory_ProductCategoryID(Integer categoryId);
+    // Translations in :lang (pt, ct) and :fallback (pf, cf). Each join matches at most one row
+    // (PK is product/category + language), so there is one row per product.
+    String TRANSLATION_JOINS = "FROM Product p JOIN p.category c " +
+            "LEFT JOIN ProductTranslation pt ON pt.id.productID = p.productID AND pt.id.languageID = :lang " +
+            "LEFT JOIN ProductTranslation pf ON pf.id.productID = p.productID AND pf.id.languageID = :fallback " +
+            "LEFT JOIN ProductCategoryTranslation ct ON ct.id.productCategoryID = c.productCategoryID AND ct.id.languageID = :lang " +
+            "LEFT JOIN ProductCategoryTranslation cf ON cf.id.productCategoryID = c.productCategoryID AND cf.id.languageID = :fallback ";
 
-    // Fetch products with their translations AND category translations
-    // This works now because we changed List to Set in the entities
-    @Query("SELECT DISTINCT p FROM Product p " +
-            "LEFT JOIN FETCH p.translations " +
-            "LEFT JOIN FETCH p.category c " +
-            "LEFT JOIN FETCH c.translations")
-    List<Product> findAllWithTranslation();
+    // ProductDTO rows with names in :lang, falling back to :fallback
+    String DTO_SELECT = "SELECT new com.demo.security.dto.ProductDTO(" +
+            "p.productID, p.price, p.weight, c.productCategoryID, " +
+            "COALESCE(ct.categoryName, cf.categoryName), p.stockQuantity, p.imageUrl, " +
+            "COALESCE(pt.productName, pf.productName)) " + TRANSLATION_JOINS;
+
+    // Searchable text per product, with the same language fallback
+    String SEARCH_SELECT = "SELECT new com.demo.security.dto.ProductSearchDocument(" +
+            "p.productID, COALESCE(pt.productName, pf.productName), " +
+            "COALESCE(pt.description, pf.description), COALESCE(ct.categoryName, cf.categoryName)) " + TRANSLATION_JOINS;
+
+    @Query(DTO_SELECT + "ORDER BY p.productID")
+    List<ProductDTO> findAllDtos(@Param("lang") String languageId, @Param("fallback") String fallbackLanguageId);
+
+    @Query(DTO_SELECT + "WHERE p.productID = :id")
+    Optional<ProductDTO> findDtoById(@Param("id") Integer id,
+                                     @Param("lang") String languageId,
+                                     @Param("fallback") String fallbackLanguageId);
+
+    @Query(SEARCH_SELECT + "ORDER BY p.productID")
+    List<ProductSearchDocument> findSearchDocuments(@Param("lang") String languageId,
+                                                    @Param("fallback") String fallbackLanguageId);
+
+    @Query(SEARCH_SELECT + "WHERE p.productID = :id")
+    Optional<ProductSearchDocument> findSearchDocumentById(@Param("id") Integer id,
+                                                           @Param("lang") String languageId,
+                                                           @Param("fallback") String fallbackLanguageId);
+
+    // Newest change timestamp; feeds the catalog version
+    @Query("SELECT MAX(p.updatedDate) FROM Product p")
+    LocalDateTime findMaxUpdatedDate();
 
     // Fetch single product with all translations
     @Query("SELECT p FROM Product p " +
@@ -5,22 +5,53 @@ import com.demo.security.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Integer> {
 
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
 
-    Optional<RefreshToken> findByUser(User user);
+    // Locks the user's row until the transaction ends, serializing session changes of one user
+    @Query(value = "SELECT UserID FROM `User` WHERE Username = :username FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockUserId(@Param("username") String username);
 
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < ?1")
-    void deleteAllExpiredTokens(LocalDateTime now);
+    @Query(value = "INSERT INTO RefreshToken (TokenHash, UserID, ExpiryDate, CreatedDate) " +
+            "VALUES (:tokenHash, :userId, :expiryDate, :createdDate) " +
+            "ON DUPLICATE KEY UPDATE ExpiryDate = :expiryDate",
+            nativeQuery = true)
+    int insertForUser(@Param("tokenHash") byte[] tokenHash,
+                      @Param("userId") Integer userId,
+                      @Param("expiryDate") LocalDateTime expiryDate,
+                      @Param("createdDate") LocalDateTime createdDate);
+
+    // Keep the newest `keep` sessions of a user; the threshold is NULL (nothing deleted) while under the cap
+    @Modifying
+    @Query(value = "DELETE FROM RefreshToken WHERE UserID = :userId " +
+            "AND TokenID < (SELECT TokenID FROM (" +
+            "SELECT TokenID FROM RefreshToken WHERE UserID = :userId " +
+            "ORDER BY TokenID DESC LIMIT 1 OFFSET :offset) newest)",
+            nativeQuery = true)
+    int deleteOldestSessions(@Param("userId") Integer userId, @Param("offset") int keepMinusOne);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.tokenHash = ?1")
+    int deleteByTokenHash(byte[] tokenHash);
+
+    // One bounded batch in its own short transaction; callers loop until it returns less than the limit
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM RefreshToken WHERE ExpiryDate < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByExpiryDateBefore(LocalDateTime now);
 
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.user = ?1")
     void deleteByUser(User user);
-}
\ No newline at end of file
+}
@@ -1,14 +1,23 @@
 package com.demo.security.repository;
 
+import com.demo.security.dto.UserProfileView;
 import com.demo.security.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByUsername(String username);
-    boolean existsByUsername(String username);
-    boolean existsByEmail(String email);
+
+    // Profile columns and role names in one round trip, without materializing the entity graph
+    @Query(value = "SELECT u.UserID AS userID, u.Username AS username, u.Email AS email, u.FullName AS fullName, " +
+            "u.Enabled AS enabled, u.CreatedDate AS createdDate, u.UpdatedDate AS updatedDate, " +
+            "GROUP_CONCAT(r.RoleName ORDER BY r.RoleName SEPARATOR ',') AS roleNames " +
+            "FROM `User` u LEFT JOIN UserRole ur ON ur.UserID = u.UserID LEFT JOIN Role r ON r.RoleID = ur.RoleID " +
+            "WHERE u.Username = ?1 GROUP BY u.UserID",
+            nativeQuery = true)
+    Optional<UserProfileView> findProfileByUsername(String username);
 }
 
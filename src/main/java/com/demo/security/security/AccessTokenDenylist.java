@@ -0,0 +1,189 @@
+package com.demo.security.security;
+
+import com.demo.security.entity.RevokedAccessToken;
+import com.demo.security.repository.RevokedAccessTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Access tokens revoked before their expiry, keyed by jti.
+ * <p>
+ * Lookups go through a Bloom filter first, so the common case (token not revoked) costs
+ * a few bit tests and allocates nothing. A hit is confirmed against the exact map, which
+ * also holds each token's expiry so entries stop matching once the token is dead anyway.
+ * <p>
+ * Revocations are written to the {@code RevokedAccessToken} table and reloaded on startup and
+ * on every refresh, which also picks up revocations made on other instances. Bloom filters
+ * cannot delete, so each refresh rebuilds the filter from the surviving entries.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccessTokenDenylist {
+
+    private final RevokedAccessTokenRepository revokedRepository;
+
+    @Value("${jwt.revocation.expected-entries:10000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // jti -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        refresh();
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void revoke(String jti, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedRepository.save(RevokedAccessToken.builder()
+                .jti(jti)
+                .expiresAt(toLocalDateTime(expiresAtMillis))
+                .build());
+        addLocal(jti, expiresAtMillis);
+        log.debug("Revoked access token {}", jti);
+    }
+
+    // Pick up revocations from other instances, drop expired entries and rebuild the filter
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:30000}")
+    public void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            revokedRepository.deleteExpired(now);
+            for (RevokedAccessToken entry : revokedRepository.findByExpiresAtAfter(now)) {
+                revoked.put(entry.getJti(), toEpochMillis(entry.getExpiresAt()));
+            }
+        } catch (RuntimeException e) {
+            // Keep serving from memory; the next refresh retries
+            log.error("Could not reload revoked access tokens: {}", e.getMessage());
+        }
+        rebuild();
+    }
+
+    public Map<String, Object> getStats() {
+        BloomFilter current = filter;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", revoked.size());
+        stats.put("bloomBits", current.bitCount());
+        stats.put("bloomHashes", current.hashCount());
+        return stats;
+    }
+
+    private synchronized void addLocal(String jti, long expiresAtMillis) {
+        revoked.put(jti, expiresAtMillis);
+        filter.put(jti);
+    }
+
+    // Synchronized with addLocal so a revocation cannot slip in between the copy and the swap
+    private synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings using double hashing on two 64-bit hashes of the
+     * characters, so neither adding nor testing allocates.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.max(1, (optimalBits + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bits = wordCount * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expectedEntries * Math.log(2)));
+        }
+
+        void put(String value) {
+            long h1 = fnv1a(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long h1 = fnv1a(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long bitCount() {
+            return bits;
+        }
+
+        int hashCount() {
+            return hashes;
+        }
+
+        private static long fnv1a(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        // SplitMix64 finalizer, used to derive an independent second hash
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.demo.security.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single entry point for checking access tokens on the request path.
+ * <p>
+ * On top of the signature/expiry check in {@link JwtUtil} it keeps a per-user
+ * "not before" mark: when an account is disabled, deleted or its roles change,
+ * every token issued for that user before the change is rejected. This is what
+ * lets stateless authentication drop the per-request database lookup. The marks
+ * are local to this instance, so other nodes rely on the access-token TTL.
+ * Tokens seen before are served from {@link VerifiedTokenCache} without re-checking the signature.
+ * Individually revoked tokens are rejected through {@link AccessTokenDenylist}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccessTokenVerifier {
+
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final AccessTokenDenylist denylist;
+
+    // username -> epoch second before which tokens are no longer accepted
+    private final Map<String, Long> notBeforeByUser = new ConcurrentHashMap<>();
+
+    /**
+     * @return the verified claims, or {@code null} if the token is invalid, expired or invalidated
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        VerifiedToken verified = tokenCache.get(token);
+        if (verified == null) {
+            verified = jwtUtil.verifyToken(token);
+            if (verified != null) {
+                tokenCache.put(token, verified);
+            }
+        }
+        if (verified == null || verified.isExpired() || isInvalidated(verified)
+                || denylist.isRevoked(verified.getTokenId())) {
+            return null;
+        }
+        return verified;
+    }
+
+    // Reject this one token (e.g. on logout) until it would have expired anyway
+    public void revoke(VerifiedToken verified) {
+        if (verified.getTokenId() != null && verified.getExpiration() != null) {
+            denylist.revoke(verified.getTokenId(), verified.getExpiration().getTime());
+        }
+    }
+
+    // Reject every token issued to this user up to now
+    public void invalidateUser(String username) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        notBeforeByUser.put(username, nowSeconds);
+        log.debug("Invalidated tokens issued before {} for user {}", nowSeconds, username);
+
+        // Marks older than one access-token lifetime can no longer match a live token
+        long horizon = nowSeconds - jwtUtil.getAccessTokenExpiration() / 1000;
+        notBeforeByUser.values().removeIf(notBefore -> notBefore < horizon);
+    }
+
+    private boolean isInvalidated(VerifiedToken verified) {
+        Long notBefore = notBeforeByUser.get(verified.getSubject());
+        if (notBefore == null || verified.getIssuedAt() == null) {
+            return notBefore != null;
+        }
+        // iat has second precision; a token minted in the same second as the change stays valid
+        return verified.getIssuedAt().getTime() / 1000 < notBefore;
+    }
+}
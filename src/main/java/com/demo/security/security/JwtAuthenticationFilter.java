@@ -7,46 +7,28 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final AccessTokenVerifier tokenVerifier;
     private final CustomUserDetailsService userDetailsService;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
-
-    // Paths that don't need JWT authentication
-    private static final List<String> PUBLIC_PATHS = Arrays.asList(
-            "/api/auth/**",
-            "/api/public/**",
-            "/",
-            "/index",
-            "/index.html",
-            "/login",
-            "/login.html",
-            "/register",
-            "/register.html",
-            "/products",
-            "/products.html",
-            "/admin",
-            "/admin.html",
-            "/favicon.ico",
-            "/css/**",
-            "/js/**",
-            "/images/**"
-    );
+
+    // Build the principal from the token claims instead of loading the user from the database
+    @Value("${jwt.stateless-auth.enabled:false}")
+    private boolean statelessAuth;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -59,28 +41,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Log for debugging
         log.debug("Processing request: {} {}", request.getMethod(), path);
 
-        // Skip JWT validation for public paths
-        if (isPublicPath(path)) {
-            log.debug("Public path, skipping JWT validation: {}", path);
-            filterChain.doFilter(request, response);
-            return;
-        }
-
         try {
             String jwt = extractJwtFromRequest(request);
 
             if (jwt != null) {
                 log.debug("JWT token found, validating...");
 
-                if (jwtUtil.validateTokenStructure(jwt)) {
-                    String username = jwtUtil.getUsernameFromToken(jwt);
+                // One parse: signature, expiry and claims are checked together
+                VerifiedToken verified = tokenVerifier.verify(jwt);
+
+                if (verified != null) {
+                    String username = verified.getSubject();
                     log.debug("Token username: {}", username);
 
                     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                        log.debug("User loaded: {}, authorities: {}", username, userDetails.getAuthorities());
+                        UserDetails userDetails = statelessAuth
+                                ? buildUserFromClaims(verified)
+                                : userDetailsService.loadUserByUsername(username);
+                        log.debug("User resolved: {}, authorities: {}", username, userDetails.getAuthorities());
 
-                        if (jwtUtil.validateToken(jwt, userDetails)) {
+                        if (username.equals(userDetails.getUsername()) && userDetails.isEnabled()) {
                             UsernamePasswordAuthenticationToken authentication =
                                     new UsernamePasswordAuthenticationToken(
                                             userDetails,
@@ -95,7 +75,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         }
                     }
                 } else {
-                    log.warn("Invalid token structure");
+                    log.warn("Invalid or expired token");
                 }
             } else {
                 log.debug("No JWT token found in request to: {}", path);
@@ -107,9 +87,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, path));
+    private UserDetails buildUserFromClaims(VerifiedToken verified) {
+        return User.withUsername(verified.getSubject())
+                .password("")
+                .authorities(verified.getRoles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList())
+                .build();
+    }
+
+    // Public routes are normally served by their own filter chain; this is a cheap safety net
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PublicRoutes.ALL.matches(request);
     }
 
     private String extractJwtFromRequest(HttpServletRequest request) {
@@ -0,0 +1,319 @@
+package com.demo.security.security;
+
+import com.demo.security.entity.JwtSigningKey;
+import com.demo.security.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Owns the asymmetric keys used to sign and verify JWTs.
+ * <p>
+ * Keys live in the {@code JwtSigningKey} table so every instance signs and verifies with
+ * the same set. A new key is generated once the newest one is older than the rotation
+ * interval. It is published in the JWKS for the activation delay before it is used for
+ * signing, so services that cache the JWKS know it before the first token arrives.
+ * A superseded key is kept until every access token it signed has expired.
+ * <p>
+ * Private keys are stored encrypted with AES-GCM under a key-encryption key that comes from
+ * configuration (normally the {@code JWT_KEY_ENCRYPTION_KEY} environment variable), never from
+ * the database, with the kid as associated data. Rows written before encryption was introduced
+ * are encrypted in place on the next reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtKeyManager {
+
+    private static final long UNKNOWN_KID_RELOAD_INTERVAL_MS = 10_000;
+    private static final String SEALED_PREFIX = "v1:";
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final JwtSigningKeyRepository keyRepository;
+
+    @Value("${jwt.signing.algorithm:RS256}")
+    private SignatureAlgorithm algorithm;
+
+    @Value("${jwt.signing.rotation-interval:604800000}")
+    private long rotationInterval;
+
+    @Value("${jwt.signing.activation-delay:300000}")
+    private long activationDelay;
+
+    @Value("${jwt.access-token.expiration}")
+    private long accessTokenExpiration;
+
+    // Base64 AES key, 128, 192 or 256 bits
+    @Value("${jwt.signing.key-encryption-key:}")
+    private String keyEncryptionKeyValue;
+
+    private final SecureRandom random = new SecureRandom();
+    private SecretKey keyEncryptionKey;
+
+    public record ActiveKey(String kid, SignatureAlgorithm algorithm, PrivateKey privateKey) {
+    }
+
+    private record LoadedKey(String kid, SignatureAlgorithm algorithm, PublicKey publicKey,
+                             PrivateKey privateKey, LocalDateTime createdDate) {
+    }
+
+    // Newest first; replaced wholesale on every reload
+    private volatile List<LoadedKey> keys = Collections.emptyList();
+    private volatile long lastReload;
+
+    @PostConstruct
+    void init() {
+        if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+            throw new IllegalStateException("jwt.signing.algorithm must be an RSA or EC algorithm, got " + algorithm);
+        }
+        keyEncryptionKey = parseKeyEncryptionKey(keyEncryptionKeyValue);
+        rotate();
+    }
+
+    // Reload keys written by other instances, generate a new key when due and drop retired ones
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval:60000}")
+    public synchronized void rotate() {
+        reload();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LoadedKey> current = keys;
+        if (current.isEmpty()
+                || current.get(0).algorithm() != algorithm
+                || current.get(0).createdDate().isBefore(now.minus(Duration.ofMillis(rotationInterval)))) {
+            createKey();
+            reload();
+            current = keys;
+        }
+
+        purgeRetired(current, now);
+    }
+
+    public ActiveKey getSigningKey() {
+        List<LoadedKey> current = keys;
+        LocalDateTime activeBefore = LocalDateTime.now().minus(Duration.ofMillis(activationDelay));
+        LoadedKey signing = current.stream()
+                .filter(key -> key.algorithm() == algorithm && !key.createdDate().isAfter(activeBefore))
+                .findFirst()
+                // Nothing old enough yet (fresh install or algorithm switch): use the newest key
+                .orElse(current.get(0));
+        return new ActiveKey(signing.kid(), signing.algorithm(), signing.privateKey());
+    }
+
+    // Public key for a kid, or null if unknown
+    public PublicKey getVerificationKey(String kid) {
+        PublicKey key = findPublicKey(kid);
+        if (key == null && kid != null && reloadDue()) {
+            // Possibly rotated by another instance since our last refresh
+            synchronized (this) {
+                if (reloadDue()) {
+                    reload();
+                }
+            }
+            key = findPublicKey(kid);
+        }
+        return key;
+    }
+
+    // Public halves of all non-retired keys in JWK form
+    public List<Map<String, Object>> getJwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (LoadedKey key : keys) {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kid", key.kid());
+            jwk.put("use", "sig");
+            jwk.put("alg", key.algorithm().getValue());
+            if (key.publicKey() instanceof RSAPublicKey rsa) {
+                jwk.put("kty", "RSA");
+                jwk.put("n", base64Url(unsigned(rsa.getModulus(), 0)));
+                jwk.put("e", base64Url(unsigned(rsa.getPublicExponent(), 0)));
+            } else if (key.publicKey() instanceof ECPublicKey ec) {
+                int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+                jwk.put("kty", "EC");
+                jwk.put("crv", curveName(key.algorithm()));
+                jwk.put("x", base64Url(unsigned(ec.getW().getAffineX(), size)));
+                jwk.put("y", base64Url(unsigned(ec.getW().getAffineY(), size)));
+            }
+            jwks.add(jwk);
+        }
+        return jwks;
+    }
+
+    private boolean reloadDue() {
+        return System.currentTimeMillis() - lastReload > UNKNOWN_KID_RELOAD_INTERVAL_MS;
+    }
+
+    private PublicKey findPublicKey(String kid) {
+        for (LoadedKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key.publicKey();
+            }
+        }
+        return null;
+    }
+
+    private void reload() {
+        List<LoadedKey> loaded = new ArrayList<>();
+        for (JwtSigningKey entity : keyRepository.findAllByOrderByCreatedDateDesc()) {
+            try {
+                if (!entity.getPrivateKey().startsWith(SEALED_PREFIX)) {
+                    entity.setPrivateKey(seal(entity.getKid(), Base64.getDecoder().decode(entity.getPrivateKey())));
+                    keyRepository.save(entity);
+                    log.info("Encrypted plaintext JWT signing key {} at rest", entity.getKid());
+                }
+                loaded.add(decode(entity));
+            } catch (GeneralSecurityException | JwtException | IllegalArgumentException e) {
+                log.error("Skipping unreadable JWT signing key {}: {}", entity.getKid(), e.getMessage());
+            }
+        }
+        keys = List.copyOf(loaded);
+        lastReload = System.currentTimeMillis();
+    }
+
+    private void createKey() {
+        KeyPair pair = Keys.keyPairFor(algorithm);
+        String kid = UUID.randomUUID().toString();
+        JwtSigningKey entity;
+        try {
+            entity = JwtSigningKey.builder()
+                    .kid(kid)
+                    .algorithm(algorithm.getValue())
+                    .publicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()))
+                    .privateKey(seal(kid, pair.getPrivate().getEncoded()))
+                    .createdDate(LocalDateTime.now())
+                    .build();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt new JWT signing key", e);
+        }
+        keyRepository.save(entity);
+        log.info("Generated new {} JWT signing key {}", algorithm.getValue(), entity.getKid());
+    }
+
+    // A key is retired once its successor has been signing for longer than an access token lives
+    private void purgeRetired(List<LoadedKey> current, LocalDateTime now) {
+        LocalDateTime horizon = now.minus(Duration.ofMillis(activationDelay + accessTokenExpiration));
+        for (int i = 1; i < current.size(); i++) {
+            if (current.get(i - 1).createdDate().isBefore(horizon)) {
+                List<String> retired = current.subList(i, current.size()).stream()
+                        .map(LoadedKey::kid)
+                        .toList();
+                keyRepository.deleteAllById(retired);
+                log.info("Retired JWT signing keys {}", retired);
+                reload();
+                return;
+            }
+        }
+    }
+
+    private LoadedKey decode(JwtSigningKey entity) throws GeneralSecurityException {
+        SignatureAlgorithm keyAlgorithm = SignatureAlgorithm.forName(entity.getAlgorithm());
+        KeyFactory factory = KeyFactory.getInstance(keyAlgorithm.isRsa() ? "RSA" : "EC");
+        Base64.Decoder decoder = Base64.getDecoder();
+        PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(decoder.decode(entity.getPublicKey())));
+        PrivateKey privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(open(entity.getKid(), entity.getPrivateKey())));
+        return new LoadedKey(entity.getKid(), keyAlgorithm, publicKey, privateKey, entity.getCreatedDate());
+    }
+
+    // "v1:" + base64(IV || ciphertext || tag); the kid as AAD stops a row's key being moved to another kid
+    private String seal(String kid, byte[] pkcs8) throws GeneralSecurityException {
+        byte[] iv = new byte[GCM_IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] sealed = Arrays.copyOf(iv, GCM_IV_BYTES + cipher.getOutputSize(pkcs8.length));
+        cipher.doFinal(pkcs8, 0, pkcs8.length, sealed, GCM_IV_BYTES);
+        return SEALED_PREFIX + Base64.getEncoder().encodeToString(sealed);
+    }
+
+    // Fails with AEADBadTagException under a different key-encryption key or kid
+    private byte[] open(String kid, String stored) throws GeneralSecurityException {
+        if (!stored.startsWith(SEALED_PREFIX)) {
+            throw new GeneralSecurityException("private key is not encrypted");
+        }
+        byte[] sealed = Base64.getDecoder().decode(stored.substring(SEALED_PREFIX.length()));
+        if (sealed.length <= GCM_IV_BYTES) {
+            throw new GeneralSecurityException("encrypted private key is truncated");
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(sealed, GCM_IV_BYTES, sealed.length - GCM_IV_BYTES);
+    }
+
+    private static SecretKey parseKeyEncryptionKey(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("jwt.signing.key-encryption-key (JWT_KEY_ENCRYPTION_KEY) must be set "
+                    + "to a base64 AES key, e.g. the output of: openssl rand -base64 32");
+        }
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("jwt.signing.key-encryption-key is not valid base64");
+        }
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalStateException("jwt.signing.key-encryption-key must be 16, 24 or 32 bytes, got " + key.length);
+        }
+        return new SecretKeySpec(key, "AES");
+    }
+
+    private static String curveName(SignatureAlgorithm algorithm) {
+        return switch (algorithm) {
+            case ES384 -> "P-384";
+            case ES512 -> "P-521";
+            default -> "P-256";
+        };
+    }
+
+    // Big-endian magnitude without the sign byte, left-padded to length when length > 0
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (length > bytes.length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            return padded;
+        }
+        return bytes;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
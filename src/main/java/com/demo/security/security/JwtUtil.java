@@ -1,24 +1,27 @@
 package com.demo.security.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtKeyManager keyManager;
 
     @Value("${jwt.access-token.expiration}")
     private Long accessTokenExpiration;
@@ -26,8 +29,23 @@ public class JwtUtil {
     @Value("${jwt.refresh-token.expiration}")
     private Long refreshTokenExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // The parser is immutable and thread-safe, so build it once; keys are resolved per token by kid
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keyManager.getVerificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
     // Generate Access Token
@@ -39,75 +57,57 @@ public class JwtUtil {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
 
+        JwtKeyManager.ActiveKey key = keyManager.getSigningKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + accessTokenExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(key.privateKey(), key.algorithm())
                 .compact();
     }
 
     // Generate Refresh Token (simple, no claims)
     public String generateRefreshToken(String username) {
+        JwtKeyManager.ActiveKey key = keyManager.getSigningKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid())
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(key.privateKey(), key.algorithm())
                 .compact();
     }
 
-    // Extract username from token
-    public String getUsernameFromToken(String token) {
-        return getClaims(token).getSubject();
-    }
-
-    // Extract expiration date
-    public Date getExpirationDateFromToken(String token) {
-        return getClaims(token).getExpiration();
-    }
-
-    // Get all claims
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    // Validate token
-    public Boolean validateToken(String token, UserDetails userDetails) {
+    /**
+     * Verify signature and expiry in a single parse.
+     *
+     * @return the verified claims, or {@code null} if the token is malformed, forged or expired
+     */
+    public VerifiedToken verifyToken(String token) {
         try {
-            final String username = getUsernameFromToken(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    claims.getId(),
+                    extractRoles(claims),
+                    claims.getIssuedAt(),
+                    claims.getExpiration());
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
 
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        try {
-            final Date expiration = getExpirationDateFromToken(token);
-            return expiration.before(new Date());
-        } catch (JwtException e) {
-            return true;
-        }
-    }
-
-    // Validate token structure (without user details)
-    public Boolean validateTokenStructure(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof List<?> list)) {
+            return Collections.emptyList();
         }
+        return list.stream()
+                .map(String::valueOf)
+                .collect(Collectors.toUnmodifiableList());
     }
 
     // Get expiration time in milliseconds
@@ -0,0 +1,107 @@
+package com.demo.security.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limit for login attempts, applied per username and per client IP before any
+ * password is checked, so a credential-stuffing wave is turned away without BCrypt work.
+ * <p>
+ * Each key owns a token bucket in GCRA form: a single {@link AtomicLong} holding the
+ * "theoretical arrival time", advanced with CAS, so concurrent attempts never lock.
+ * Buckets live in size-bounded Caffeine caches and are dropped after being idle for
+ * longer than a full refill, at which point a new bucket would be identical anyway.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Limiter byUsername;
+    private final Limiter byIp;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByUsername = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    public LoginThrottle(
+            @Value("${auth.login-throttle.username.capacity:5}") int usernameCapacity,
+            @Value("${auth.login-throttle.username.refill-period-ms:60000}") long usernameRefillMs,
+            @Value("${auth.login-throttle.ip.capacity:20}") int ipCapacity,
+            @Value("${auth.login-throttle.ip.refill-period-ms:60000}") long ipRefillMs,
+            @Value("${auth.login-throttle.max-entries:100000}") long maxEntries) {
+        this.byUsername = new Limiter(usernameCapacity, usernameRefillMs, maxEntries);
+        this.byIp = new Limiter(ipCapacity, ipRefillMs, maxEntries);
+    }
+
+    /**
+     * Take one attempt from both buckets.
+     *
+     * @return 0 if the attempt may proceed, otherwise milliseconds until it would be allowed
+     */
+    public long tryAcquire(String username, String clientIp) {
+        long now = System.nanoTime();
+        long ipWait = clientIp == null ? 0 : byIp.tryAcquire(clientIp, now);
+        if (ipWait > 0) {
+            rejectedByIp.increment();
+            return ipWait;
+        }
+        long usernameWait = username == null ? 0 : byUsername.tryAcquire(username.toLowerCase(Locale.ROOT), now);
+        if (usernameWait > 0) {
+            rejectedByUsername.increment();
+            return usernameWait;
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("allowed", allowed.sum());
+        stats.put("rejectedByUsername", rejectedByUsername.sum());
+        stats.put("rejectedByIp", rejectedByIp.sum());
+        stats.put("trackedUsernames", byUsername.buckets.estimatedSize());
+        stats.put("trackedIps", byIp.buckets.estimatedSize());
+        return stats;
+    }
+
+    private static final class Limiter {
+
+        // Time one token takes to refill, and how far ahead of now the bucket may run (burst)
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final Cache<String, AtomicLong> buckets;
+
+        Limiter(int capacity, long refillPeriodMs, long maxEntries) {
+            int tokens = Math.max(1, capacity);
+            this.emissionIntervalNanos = Duration.ofMillis(refillPeriodMs).toNanos() / tokens;
+            this.burstToleranceNanos = emissionIntervalNanos * (tokens - 1);
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxEntries)
+                    .expireAfterAccess(Duration.ofMillis(refillPeriodMs))
+                    .build();
+        }
+
+        long tryAcquire(String key, long now) {
+            AtomicLong arrival = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = arrival.get();
+                long tat = Math.max(current, now);
+                long wait = tat - burstToleranceNanos - now;
+                if (wait > 0) {
+                    return Math.max(1, Duration.ofNanos(wait).toMillis());
+                }
+                if (arrival.compareAndSet(current, tat + emissionIntervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
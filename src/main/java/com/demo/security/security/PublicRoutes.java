@@ -0,0 +1,80 @@
+package com.demo.security.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The single route table for traffic that never needs an authenticated user.
+ * Used by {@code SecurityConfig} to route requests to the right filter chain and by
+ * {@link JwtAuthenticationFilter} to skip token parsing.
+ */
+public final class PublicRoutes {
+
+    // Served straight from the classpath; these requests bypass Spring Security entirely
+    public static final RequestMatcher STATIC_RESOURCES = compile(
+            "/favicon.ico",
+            "/css/**",
+            "/js/**",
+            "/images/**"
+    );
+
+    // Under /api/auth/** but for authenticated services only (see SecurityConfig)
+    public static final RequestMatcher SERVICE_ENDPOINTS = compile(
+            "/api/auth/validate/batch"
+    );
+
+    private static final RequestMatcher OPEN_PATHS = compile(
+            "/",
+            "/index",
+            "/index.html",
+            "/login",
+            "/login.html",
+            "/register",
+            "/register.html",
+            "/products",
+            "/products.html",
+            "/admin",
+            "/admin.html",
+            "/error",
+            "/api/auth/**",
+            "/api/public/**"
+    );
+
+    // Pages and APIs open to anonymous users; handled by a minimal filter chain without JWT parsing
+    public static final RequestMatcher PUBLIC_ENDPOINTS =
+            new AndRequestMatcher(OPEN_PATHS, new NegatedRequestMatcher(SERVICE_ENDPOINTS));
+
+    public static final RequestMatcher ALL = new OrRequestMatcher(STATIC_RESOURCES, PUBLIC_ENDPOINTS);
+
+    private PublicRoutes() {
+    }
+
+    // Patterns are parsed once; matching walks the pre-split segments without regex or re-tokenizing
+    private static RequestMatcher compile(String... patterns) {
+        List<PathPattern> compiled = Arrays.stream(patterns)
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        return request -> {
+            PathContainer path = PathContainer.parsePath(pathWithinApplication(request));
+            for (PathPattern pattern : compiled) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
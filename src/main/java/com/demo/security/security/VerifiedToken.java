@@ -0,0 +1,34 @@
+package com.demo.security.security;
+
+import lombok.Value;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Claims of an access token whose signature and expiry have already been checked.
+ * Produced once per request by {@link JwtUtil#verifyToken(String)} and handed on
+ * to the filter and controllers so the token never has to be parsed again.
+ */
+@Value
+public class VerifiedToken {
+
+    String subject;
+    // jti claim; null for tokens minted before token IDs were introduced
+    String tokenId;
+    List<String> roles;
+    Date issuedAt;
+    Date expiration;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    // Remaining lifetime in milliseconds (0 once expired)
+    public long getRemainingMillis() {
+        if (expiration == null) {
+            return 0L;
+        }
+        return Math.max(0L, expiration.getTime() - System.currentTimeMillis());
+    }
+}
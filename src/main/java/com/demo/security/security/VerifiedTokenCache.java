@@ -0,0 +1,98 @@
+package com.demo.security.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers access tokens that already passed signature verification, until their {@code exp}.
+ * <p>
+ * Entries are keyed by the token's signature segment: it is already a digest of the
+ * header and payload, so no extra hashing is needed. A hit still compares the full
+ * token, so a forged header/payload carrying a known signature is never accepted.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${jwt.verified-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.verified-cache.max-size:50000}")
+    private long maxSize;
+
+    // null when the cache is disabled
+    private Cache<String, Entry> cache;
+
+    private record Entry(String token, VerifiedToken verified) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(entry.verified().getRemainingMillis());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    // Previously verified claims for this exact token, or null
+    public VerifiedToken get(String token) {
+        if (cache == null) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(signatureOf(token));
+        if (entry == null || !entry.token().equals(token)) {
+            return null;
+        }
+        return entry.verified();
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (cache != null) {
+            cache.put(signatureOf(token), new Entry(token, verified));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", cache != null);
+        if (cache != null) {
+            CacheStats cacheStats = cache.stats();
+            stats.put("size", cache.estimatedSize());
+            stats.put("hits", cacheStats.hitCount());
+            stats.put("misses", cacheStats.missCount());
+            stats.put("hitRate", cacheStats.hitRate());
+        }
+        return stats;
+    }
+
+    private static String signatureOf(String token) {
+        return token.substring(token.lastIndexOf('.') + 1);
+    }
+}
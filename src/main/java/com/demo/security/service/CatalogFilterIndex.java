@@ -0,0 +1,258 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductCategoryDTO;
+import com.demo.security.dto.ProductDTO;
+import com.demo.security.dto.ProductFilterCriteria;
+import com.demo.security.dto.ProductFilterResult;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter structures over one language catalog, addressed by ordinal (position in the catalog's
+ * ID-sorted product list).
+ * <p>
+ * Category, stock and shippability are bitsets, tested per ordinal while scanning. Price and
+ * weight are kept as cents in sorted primitive arrays with the matching ordinals, so a range is
+ * two binary searches and one bitset fill. Immutable once built; one is built per catalog
+ * snapshot and language, on first use.
+ */
+final class CatalogFilterIndex {
+
+    // Ordinals are packed below the cents in one long so a plain long sort orders by value
+    private static final int ORDINAL_BITS = 29;
+    private static final long ORDINAL_MASK = (1L << ORDINAL_BITS) - 1;
+    // Signed range of cents that still fits above the ordinal bits
+    private static final long MIN_CENTS = Long.MIN_VALUE >> ORDINAL_BITS;
+    private static final long MAX_CENTS = Long.MAX_VALUE >> ORDINAL_BITS;
+    private static final BigDecimal MIN_VALUE = BigDecimal.valueOf(MIN_CENTS, 2);
+    private static final BigDecimal MAX_VALUE = BigDecimal.valueOf(MAX_CENTS, 2);
+    private static final BigDecimal ONE_CENT = BigDecimal.valueOf(1, 2);
+
+    private final List<ProductDTO> products;
+    // Categories are numbered densely so facet counting is an int[] increment
+    private final int[] categorySlots;
+    private final int[] slotCategoryIds;
+    private final Map<Integer, BitSet> byCategory;
+    private final BitSet inStock;
+    private final BitSet shippable;
+    private final long[] priceCents;
+    private final long[] sortedPrices;
+    private final int[] priceOrdinals;
+    private final long[] sortedWeights;
+    private final int[] weightOrdinals;
+
+    private CatalogFilterIndex(List<ProductDTO> products, int[] categorySlots, int[] slotCategoryIds, Map<Integer, BitSet> byCategory,
+                               BitSet inStock, BitSet shippable, long[] priceCents,
+                               long[] sortedPrices, int[] priceOrdinals, long[] sortedWeights, int[] weightOrdinals) {
+        this.products = products;
+        this.categorySlots = categorySlots;
+        this.slotCategoryIds = slotCategoryIds;
+        this.byCategory = byCategory;
+        this.inStock = inStock;
+        this.shippable = shippable;
+        this.priceCents = priceCents;
+        this.sortedPrices = sortedPrices;
+        this.priceOrdinals = priceOrdinals;
+        this.sortedWeights = sortedWeights;
+        this.weightOrdinals = weightOrdinals;
+    }
+
+    // products must be the catalog's ID-sorted list
+    static CatalogFilterIndex build(List<ProductDTO> products, List<ProductCategoryDTO> categories) {
+        int size = products.size();
+        Map<Integer, Boolean> categoryShippable = new HashMap<>();
+        for (ProductCategoryDTO category : categories) {
+            categoryShippable.put(category.getProductCategoryID(), !Boolean.FALSE.equals(category.getCanBeShipped()));
+        }
+
+        int[] categorySlots = new int[size];
+        Map<Integer, Integer> slots = new LinkedHashMap<>();
+        Map<Integer, BitSet> byCategory = new HashMap<>();
+        BitSet inStock = new BitSet(size);
+        BitSet shippable = new BitSet(size);
+        long[] priceCents = new long[size];
+        long[] prices = new long[size];
+        long[] weights = new long[size];
+        int weightCount = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            ProductDTO product = products.get(ordinal);
+            Integer categoryId = product.getProductCategoryID();
+            categorySlots[ordinal] = slots.computeIfAbsent(categoryId, k -> slots.size());
+            byCategory.computeIfAbsent(categoryId, k -> new BitSet(size)).set(ordinal);
+            if (product.getStockQuantity() != null && product.getStockQuantity() > 0) {
+                inStock.set(ordinal);
+            }
+            if (categoryShippable.getOrDefault(categoryId, true)) {
+                shippable.set(ordinal);
+            }
+            priceCents[ordinal] = cents(product.getPrice());
+            prices[ordinal] = priceCents[ordinal] << ORDINAL_BITS | ordinal;
+            // Products without a weight never match a weight range
+            if (product.getWeight() != null) {
+                weights[weightCount++] = cents(product.getWeight()) << ORDINAL_BITS | ordinal;
+            }
+        }
+        Arrays.sort(prices);
+        weights = Arrays.copyOf(weights, weightCount);
+        Arrays.sort(weights);
+
+        int[] priceOrdinals = new int[size];
+        for (int i = 0; i < size; i++) {
+            priceOrdinals[i] = (int) (prices[i] & ORDINAL_MASK);
+            prices[i] >>= ORDINAL_BITS;
+        }
+        int[] weightOrdinals = new int[weightCount];
+        for (int i = 0; i < weightCount; i++) {
+            weightOrdinals[i] = (int) (weights[i] & ORDINAL_MASK);
+            weights[i] >>= ORDINAL_BITS;
+        }
+        int[] slotCategoryIds = slots.keySet().stream().mapToInt(Integer::intValue).toArray();
+        return new CatalogFilterIndex(products, categorySlots, slotCategoryIds, byCategory, inStock, shippable, priceCents,
+                prices, priceOrdinals, weights, weightOrdinals);
+    }
+
+    /**
+     * Matches from ordinal {@code from} on, at most pageSize of them, plus the total and facet
+     * counts, collected in one pass. Each facet is counted over the matches of every other
+     * criterion, so selecting a category still shows how many products the other categories have.
+     */
+    ProductFilterResult filter(ProductFilterCriteria criteria, int from, int pageSize) {
+        // Per-criterion bitsets, null when unconstrained; weight has no facet and just narrows the scan
+        BitSet category = criteria.getCategoryId() == null ? null : byCategory.getOrDefault(criteria.getCategoryId(), new BitSet());
+        BitSet price = criteria.getMinPrice() == null && criteria.getMaxPrice() == null
+                ? null : range(sortedPrices, priceOrdinals, criteria.getMinPrice(), criteria.getMaxPrice());
+        BitSet candidates;
+        if (criteria.getMinWeight() != null || criteria.getMaxWeight() != null) {
+            candidates = range(sortedWeights, weightOrdinals, criteria.getMinWeight(), criteria.getMaxWeight());
+        } else {
+            candidates = new BitSet(products.size());
+            candidates.set(0, products.size());
+        }
+
+        List<ProductDTO> page = new ArrayList<>(pageSize);
+        int[] slotCounts = new int[slotCategoryIds.length];
+        int total = 0;
+        int inStockCount = 0;
+        int shippableCount = 0;
+        long minPrice = Long.MAX_VALUE;
+        long maxPrice = Long.MIN_VALUE;
+        boolean more = false;
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            boolean categoryMatch = category == null || category.get(ordinal);
+            boolean stockMatch = matches(inStock, criteria.getInStock(), ordinal);
+            boolean shipMatch = matches(shippable, criteria.getShippable(), ordinal);
+            boolean priceMatch = price == null || price.get(ordinal);
+            if (stockMatch && shipMatch && priceMatch) {
+                slotCounts[categorySlots[ordinal]]++;
+            }
+            if (categoryMatch && shipMatch && priceMatch && inStock.get(ordinal)) {
+                inStockCount++;
+            }
+            if (categoryMatch && stockMatch && priceMatch && shippable.get(ordinal)) {
+                shippableCount++;
+            }
+            if (categoryMatch && stockMatch && shipMatch) {
+                minPrice = Math.min(minPrice, priceCents[ordinal]);
+                maxPrice = Math.max(maxPrice, priceCents[ordinal]);
+            }
+            if (!(categoryMatch && stockMatch && shipMatch && priceMatch)) {
+                continue;
+            }
+            total++;
+            if (ordinal >= from) {
+                if (page.size() < pageSize) {
+                    page.add(products.get(ordinal));
+                } else {
+                    more = true;
+                }
+            }
+        }
+
+        Map<Integer, Integer> categoryCounts = new LinkedHashMap<>();
+        for (int slot = 0; slot < slotCounts.length; slot++) {
+            if (slotCounts[slot] > 0) {
+                categoryCounts.put(slotCategoryIds[slot], slotCounts[slot]);
+            }
+        }
+        boolean priced = minPrice <= maxPrice;
+        return ProductFilterResult.builder()
+                .products(page)
+                .nextCursor(more ? CatalogService.encodeCursor(page.get(page.size() - 1).getProductID()) : null)
+                .total(total)
+                .categoryCounts(categoryCounts)
+                .inStockCount(inStockCount)
+                .shippableCount(shippableCount)
+                .minPrice(priced ? BigDecimal.valueOf(minPrice, 2) : null)
+                .maxPrice(priced ? BigDecimal.valueOf(maxPrice, 2) : null)
+                .build();
+    }
+
+    private static boolean matches(BitSet flag, Boolean wanted, int ordinal) {
+        return wanted == null || flag.get(ordinal) == wanted;
+    }
+
+    // Ordinals whose value lies in [min, max]; a null bound is open
+    private BitSet range(long[] sorted, int[] ordinals, BigDecimal min, BigDecimal max) {
+        int start = min == null ? 0 : lowerBound(sorted, boundCents(min, RoundingMode.CEILING));
+        int end = max == null ? sorted.length : lowerBound(sorted, boundCents(max, RoundingMode.FLOOR) + 1);
+        BitSet bits = new BitSet(products.size());
+        for (int i = start; i < end; i++) {
+            bits.set(ordinals[i]);
+        }
+        return bits;
+    }
+
+    // First index whose value is >= key
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // DECIMAL(10,2) is far inside the packable range; clamp anyway rather than corrupt the packed sort key
+    private static long cents(BigDecimal value) {
+        if (value == null) {
+            return 0L;
+        }
+        return toCents(value, RoundingMode.HALF_UP, MIN_CENTS, MAX_CENTS);
+    }
+
+    // Bounds with more than two decimals round inwards, so the range never widens; out-of-range
+    // bounds are clamped just outside the storable values
+    private static long boundCents(BigDecimal value, RoundingMode mode) {
+        return toCents(value, mode, MIN_CENTS - 1, MAX_CENTS + 1);
+    }
+
+    // Bounds come from query parameters: a value like 1e100000000 or 1e-100000000 makes setScale
+    // work with a power of ten of that size, so both ends are settled by comparison first, which
+    // only looks at precision and scale
+    private static long toCents(BigDecimal value, RoundingMode mode, long below, long above) {
+        if (value.compareTo(MIN_VALUE) < 0) {
+            return below;
+        }
+        if (value.compareTo(MAX_VALUE) > 0) {
+            return above;
+        }
+        if (value.signum() != 0 && value.abs().compareTo(ONE_CENT) < 0) {
+            // Everything strictly between -0.01 and 0.01 rounds like +-0.001 in every mode used here
+            value = BigDecimal.valueOf(value.signum(), 3);
+        }
+        return value.movePointRight(2).setScale(0, mode).longValueExact();
+    }
+}
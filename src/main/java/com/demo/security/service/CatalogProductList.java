@@ -0,0 +1,188 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductDTO;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of catalog products sorted by ID, held as a table of small sorted chunks.
+ * <p>
+ * Replacing, inserting or removing one product copies only the chunk it lives in and the chunk
+ * table, so a single admin write costs about {@code CHUNK_SIZE + size / CHUNK_SIZE} references
+ * instead of a copy of the whole list. Every other version of the list keeps sharing the
+ * untouched chunks.
+ */
+final class CatalogProductList extends AbstractList<ProductDTO> implements RandomAccess {
+
+    static final CatalogProductList EMPTY = new CatalogProductList(new ProductDTO[0][]);
+
+    // Chunks are split once they reach twice this size
+    static final int CHUNK_SIZE = 256;
+
+    private final ProductDTO[][] chunks;
+    // offsets[i] is the list index of chunk i's first product; offsets[chunks.length] is the size
+    private final int[] offsets;
+
+    private CatalogProductList(ProductDTO[][] chunks) {
+        this.chunks = chunks;
+        this.offsets = new int[chunks.length + 1];
+        for (int i = 0; i < chunks.length; i++) {
+            offsets[i + 1] = offsets[i] + chunks[i].length;
+        }
+    }
+
+    // products must be sorted by ID
+    static CatalogProductList of(List<ProductDTO> products) {
+        int count = (products.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ProductDTO[][] chunks = new ProductDTO[count][];
+        for (int i = 0; i < count; i++) {
+            chunks[i] = products.subList(i * CHUNK_SIZE, Math.min((i + 1) * CHUNK_SIZE, products.size()))
+                    .toArray(new ProductDTO[0]);
+        }
+        return new CatalogProductList(chunks);
+    }
+
+    @Override
+    public ProductDTO get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int chunk = Arrays.binarySearch(offsets, 0, chunks.length, index);
+        if (chunk < 0) {
+            chunk = -chunk - 2;
+        }
+        return chunks[chunk][index - offsets[chunk]];
+    }
+
+    @Override
+    public int size() {
+        return offsets[chunks.length];
+    }
+
+    @Override
+    public Iterator<ProductDTO> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < chunks.length;
+            }
+
+            @Override
+            public ProductDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ProductDTO product = chunks[chunk][position++];
+                if (position == chunks[chunk].length) {
+                    chunk++;
+                    position = 0;
+                }
+                return product;
+            }
+        };
+    }
+
+    // Binary search by product ID; same contract as Collections.binarySearch
+    int search(int productId) {
+        int chunk = chunkFor(productId);
+        if (chunk < 0) {
+            return -1;
+        }
+        int position = searchChunk(chunks[chunk], productId);
+        return position >= 0 ? offsets[chunk] + position : -(offsets[chunk] - position - 1) - 1;
+    }
+
+    ProductDTO find(int productId) {
+        int chunk = chunkFor(productId);
+        if (chunk < 0) {
+            return null;
+        }
+        int position = searchChunk(chunks[chunk], productId);
+        return position >= 0 ? chunks[chunk][position] : null;
+    }
+
+    // Copy with one product replaced, inserted (dto != null) or removed (dto == null)
+    CatalogProductList with(int productId, ProductDTO dto) {
+        if (chunks.length == 0) {
+            return dto == null ? this : new CatalogProductList(new ProductDTO[][]{{dto}});
+        }
+        int chunk = Math.max(chunkFor(productId), 0);
+        ProductDTO[] products = chunks[chunk];
+        int position = searchChunk(products, productId);
+
+        ProductDTO[][] updated;
+        if (position >= 0 && dto != null) {
+            ProductDTO[] replaced = products.clone();
+            replaced[position] = dto;
+            updated = chunks.clone();
+            updated[chunk] = replaced;
+        } else if (position >= 0) {
+            ProductDTO[] removed = new ProductDTO[products.length - 1];
+            System.arraycopy(products, 0, removed, 0, position);
+            System.arraycopy(products, position + 1, removed, position, removed.length - position);
+            updated = removed.length > 0 ? replaceChunk(chunk, removed) : replaceChunk(chunk);
+        } else if (dto != null) {
+            int insertAt = -position - 1;
+            ProductDTO[] inserted = new ProductDTO[products.length + 1];
+            System.arraycopy(products, 0, inserted, 0, insertAt);
+            inserted[insertAt] = dto;
+            System.arraycopy(products, insertAt, inserted, insertAt + 1, products.length - insertAt);
+            updated = inserted.length < 2 * CHUNK_SIZE
+                    ? replaceChunk(chunk, inserted)
+                    : replaceChunk(chunk, Arrays.copyOfRange(inserted, 0, CHUNK_SIZE),
+                            Arrays.copyOfRange(inserted, CHUNK_SIZE, inserted.length));
+        } else {
+            return this;
+        }
+        return new CatalogProductList(updated);
+    }
+
+    // Chunk table with chunk i swapped for the given chunks (none removes it)
+    private ProductDTO[][] replaceChunk(int i, ProductDTO[]... replacement) {
+        ProductDTO[][] updated = new ProductDTO[chunks.length - 1 + replacement.length][];
+        System.arraycopy(chunks, 0, updated, 0, i);
+        System.arraycopy(replacement, 0, updated, i, replacement.length);
+        System.arraycopy(chunks, i + 1, updated, i + replacement.length, chunks.length - i - 1);
+        return updated;
+    }
+
+    // Last chunk whose first product ID is <= productId, or -1 if the ID sorts before every chunk
+    private int chunkFor(int productId) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid][0].getProductID() <= productId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private static int searchChunk(ProductDTO[] products, int productId) {
+        int low = 0;
+        int high = products.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = products[mid].getProductID();
+            if (midId < productId) {
+                low = mid + 1;
+            } else if (midId > productId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
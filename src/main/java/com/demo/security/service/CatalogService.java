@@ -0,0 +1,393 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductCategoryDTO;
+import com.demo.security.dto.ProductDTO;
+import com.demo.security.dto.ProductFilterCriteria;
+import com.demo.security.dto.ProductFilterResult;
+import com.demo.security.event.CatalogChangedEvent;
+import com.demo.security.repository.ProductCategoryRepository;
+import com.demo.security.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the public catalog from memory.
+ * <p>
+ * For every language the catalog holds an immutable snapshot: products sorted by ID, per-category
+ * lists (both {@link CatalogProductList}) and the category list. Readers take the current snapshot
+ * reference and never lock or touch the database. Writers build a new snapshot and swap the
+ * reference: after an admin change commits, only the affected product is re-read (once per
+ * language) and only its chunk and category buckets are copied; the whole catalog is re-read on
+ * category changes and on a fixed interval, which also picks up writes made through other
+ * instances. Products are immutable {@link ProductDTO} values, so they are shared, not copied.
+ * <p>
+ * The catalog version, which the public endpoints turn into ETags, is a 64-bit hash of the content
+ * of every language: every instance holding the same catalog reports the same version, before and
+ * after restarts, so a client revalidating against another node still gets a 304. Each language
+ * keeps the sum of its product and category hashes, which an admin write adjusts by the one
+ * product it replaced instead of rehashing the catalog.
+ * <p>
+ * Page and category responses are also kept in encoded form: the JSON bytes and a gzip copy are
+ * produced on first request and memoized in a size-bounded LRU cache held by the snapshot, so they
+ * are dropped with it on the next swap and every other request for the same content is a buffer
+ * copy. Only pages a normal client walks are memoized (default size, from the start or from an
+ * issued cursor); other pages are encoded per request. Filter indexes ({@link CatalogFilterIndex})
+ * are memoized in the snapshot too, per language.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String CURSOR_PREFIX = "p:";
+
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository categoryRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.fallback-language:vi}")
+    private String fallbackLanguageId;
+
+    @Value("${catalog.encoded-cache.max-bytes:67108864}")
+    private long maxEncodedBytes;
+
+    // Replaced wholesale, never mutated
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // nextCursor is null on the last page
+    public record CatalogPage(List<ProductDTO> products, String nextCursor) {
+    }
+
+    // version is a content hash, only ever compared for equality; lastModified in epoch millis
+    public record CatalogVersion(long version, long lastModified) {
+    }
+
+    // Response body ready to send; gzip is null when compressing does not make it smaller
+    public record EncodedBody(byte[] json, byte[] gzip, String nextCursor) {
+    }
+
+    // languageId -> catalog, plus the version those catalogs were published under and the
+    // response bodies and filter indexes derived from them so far
+    private record Snapshot(Map<String, LanguageCatalog> catalogs, CatalogVersion version,
+                            Cache<String, EncodedBody> encoded, Map<String, CatalogFilterIndex> filterIndexes) {
+
+        static final Snapshot EMPTY = of(Map.of(), new CatalogVersion(0L, 0L), 0L);
+
+        // Encoded bodies are weighed by their bytes, least recently used evicted first
+        static Snapshot of(Map<String, LanguageCatalog> catalogs, CatalogVersion version, long maxEncodedBytes) {
+            Cache<String, EncodedBody> encoded = Caffeine.newBuilder()
+                    .maximumWeight(maxEncodedBytes)
+                    .weigher((String key, EncodedBody body) -> body.json().length + (body.gzip() == null ? 0 : body.gzip().length))
+                    .build();
+            return new Snapshot(Map.copyOf(catalogs), version, encoded, new ConcurrentHashMap<>());
+        }
+    }
+
+    // contentHash is the sum of hashOf() over the products and categories
+    private record LanguageCatalog(CatalogProductList products,
+                                   Map<Integer, CatalogProductList> byCategory,
+                                   List<ProductCategoryDTO> categories,
+                                   long contentHash) {
+
+        static final LanguageCatalog EMPTY = of(List.of(), List.of());
+
+        // products must be sorted by ID
+        static LanguageCatalog of(List<ProductDTO> products, List<ProductCategoryDTO> categories) {
+            Map<Integer, List<ProductDTO>> grouped = new HashMap<>();
+            for (ProductDTO product : products) {
+                grouped.computeIfAbsent(product.getProductCategoryID(), k -> new ArrayList<>()).add(product);
+            }
+            Map<Integer, CatalogProductList> byCategory = new HashMap<>();
+            grouped.forEach((categoryId, list) -> byCategory.put(categoryId, CatalogProductList.of(list)));
+            long hash = 0;
+            for (ProductDTO product : products) {
+                hash += hashOf(product);
+            }
+            for (ProductCategoryDTO category : categories) {
+                hash += hashOf(category);
+            }
+            return new LanguageCatalog(CatalogProductList.of(products), Map.copyOf(byCategory), List.copyOf(categories), hash);
+        }
+
+        // Copy with one product replaced, inserted (dto != null) or removed (dto == null); only the
+        // chunks and category buckets holding the old and new version are copied
+        LanguageCatalog withProduct(Integer productId, ProductDTO dto) {
+            ProductDTO previous = products.find(productId);
+            if (previous == null && dto == null) {
+                return this;
+            }
+            Map<Integer, CatalogProductList> buckets = new HashMap<>(byCategory);
+            if (previous != null && (dto == null || !previous.getProductCategoryID().equals(dto.getProductCategoryID()))) {
+                CatalogProductList bucket = buckets.get(previous.getProductCategoryID()).with(productId, null);
+                if (bucket.isEmpty()) {
+                    buckets.remove(previous.getProductCategoryID());
+                } else {
+                    buckets.put(previous.getProductCategoryID(), bucket);
+                }
+            }
+            if (dto != null) {
+                buckets.put(dto.getProductCategoryID(),
+                        buckets.getOrDefault(dto.getProductCategoryID(), CatalogProductList.EMPTY).with(productId, dto));
+            }
+            long hash = contentHash - (previous == null ? 0 : hashOf(previous)) + (dto == null ? 0 : hashOf(dto));
+            return new LanguageCatalog(products.with(productId, dto), Map.copyOf(buckets), categories, hash);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuildAll() {
+        long start = System.currentTimeMillis();
+        Map<String, LanguageCatalog> rebuilt = new LinkedHashMap<>();
+        for (String languageId : referenceData.getLanguageIds()) {
+            rebuilt.put(languageId, LanguageCatalog.of(
+                    productRepository.findAllDtos(languageId, fallbackLanguageId),
+                    categoryRepository.findAllDtos(languageId, fallbackLanguageId)));
+        }
+        // Periodic rebuilds usually find nothing new; keep the version so client caches stay valid
+        if (rebuilt.equals(snapshot.catalogs())) {
+            log.debug("Catalog unchanged after rebuild in {} ms", System.currentTimeMillis() - start);
+            return;
+        }
+        publish(rebuilt, productRepository.findMaxUpdatedDate());
+        log.info("Catalog loaded for {} languages in {} ms, version {}",
+                rebuilt.size(), System.currentTimeMillis() - start, snapshot.version().version());
+    }
+
+    // Safety net for writes that bypass this instance (other nodes, manual SQL)
+    @Scheduled(initialDelayString = "${catalog.full-rebuild-interval:600000}",
+            fixedDelayString = "${catalog.full-rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuildAll();
+        } catch (RuntimeException e) {
+            log.error("Catalog rebuild failed, keeping the current snapshot: {}", e.getMessage());
+        }
+    }
+
+    // Runs after the admin transaction committed, in its own read-only transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullRebuild()) {
+            rebuildAll();
+            return;
+        }
+        Integer productId = event.productId();
+        Map<String, LanguageCatalog> updated = new LinkedHashMap<>();
+        snapshot.catalogs().forEach((languageId, catalog) -> updated.put(languageId, catalog.withProduct(productId,
+                productRepository.findDtoById(productId, languageId, fallbackLanguageId).orElse(null))));
+        // The product's updatedDate was stamped on this instance before the commit, so now covers it
+        publish(updated, null);
+        log.debug("Catalog refreshed for product {}, version {}", productId, snapshot.version().version());
+    }
+
+    /**
+     * Version of the current snapshot. Callers building a conditional response read this before
+     * the data: a swap in between then leaves the ETag older than the body, which costs one extra
+     * full response later, never a 304 for content the client does not have.
+     */
+    public CatalogVersion getVersion() {
+        return snapshot.version();
+    }
+
+    /**
+     * One page of products ordered by ID, optionally within a category, as encoded JSON.
+     * Default-size pages starting at the beginning or at an issued cursor are memoized, keyed on
+     * the position they start at; any other page is encoded for this request only, and then only
+     * compressed when the client takes gzip.
+     *
+     * @param cursor opaque value from a previous page, or null for the first page
+     * @param gzip   whether the client accepts a gzip body
+     * @throws IllegalArgumentException if the cursor is not one this service issued
+     */
+    public EncodedBody getEncodedPage(String languageId, Integer categoryId, String cursor, int size, boolean gzip) {
+        int afterId = decodeCursor(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Snapshot current = snapshot;
+        LanguageCatalog catalog = catalogFor(current, languageId);
+        CatalogProductList source = categoryId == null
+                ? catalog.products()
+                : catalog.byCategory().getOrDefault(categoryId, CatalogProductList.EMPTY);
+        int found = source.search(afterId);
+        int from = found >= 0 ? found + 1 : -found - 1;
+        // Issued cursors name a product on the list; anything else could be made up per request
+        boolean memoize = pageSize == DEFAULT_PAGE_SIZE && !source.isEmpty() && (afterId == 0 || found >= 0);
+        if (!memoize) {
+            CatalogPage page = page(source, from, pageSize);
+            return encode(page.products(), page.nextCursor(), false, gzip);
+        }
+        return current.encoded().get("page:" + languageId + ":" + categoryId + ":" + from, k -> {
+            CatalogPage page = page(source, from, pageSize);
+            return encode(page.products(), page.nextCursor(), true, true);
+        });
+    }
+
+    public Optional<ProductDTO> getProduct(String languageId, Integer productId) {
+        return Optional.ofNullable(catalogFor(snapshot, languageId).products().find(productId));
+    }
+
+    // Every product in one language, sorted by ID; immutable
+    public List<ProductDTO> getProducts(String languageId) {
+        return catalogFor(snapshot, languageId).products();
+    }
+
+    public List<ProductCategoryDTO> getCategories(String languageId) {
+        return catalogFor(snapshot, languageId).categories();
+    }
+
+    public EncodedBody getEncodedCategories(String languageId) {
+        Snapshot current = snapshot;
+        return current.encoded().get("categories:" + languageId,
+                k -> encode(catalogFor(current, languageId).categories(), null, true, true));
+    }
+
+    /**
+     * Products matching every given criterion, ordered by ID and paged like {@link #getEncodedPage},
+     * with the total and facet counts over all matches.
+     *
+     * @throws IllegalArgumentException if the cursor is not one this service issued
+     */
+    public ProductFilterResult filter(String languageId, ProductFilterCriteria criteria, String cursor, int size) {
+        int afterId = decodeCursor(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Snapshot current = snapshot;
+        LanguageCatalog catalog = catalogFor(current, languageId);
+        CatalogFilterIndex index = current.filterIndexes().computeIfAbsent(languageId,
+                k -> CatalogFilterIndex.build(catalog.products(), catalog.categories()));
+        int from = catalog.products().search(afterId);
+        return index.filter(criteria, from >= 0 ? from + 1 : -from - 1, pageSize);
+    }
+
+    private static CatalogPage page(List<ProductDTO> source, int from, int pageSize) {
+        int to = Math.min(from + pageSize, source.size());
+        List<ProductDTO> page = source.subList(from, to);
+        String nextCursor = to < source.size() ? encodeCursor(page.get(page.size() - 1).getProductID()) : null;
+        return new CatalogPage(page, nextCursor);
+    }
+
+    // Memoized bodies are compressed hard since they are sent many times; one-off bodies only
+    // when asked for, and fast
+    private EncodedBody encode(Object value, String nextCursor, boolean memoized, boolean compress) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog response", e);
+        }
+        if (!compress) {
+            return new EncodedBody(json, null, nextCursor);
+        }
+        byte[] gzip = gzip(json, memoized ? Deflater.BEST_COMPRESSION : Deflater.BEST_SPEED);
+        return new EncodedBody(json, gzip.length < json.length ? gzip : null, nextCursor);
+    }
+
+    private static byte[] gzip(byte[] data, int level) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    // Callers hold the monitor, so snapshots are swapped in order
+    private void publish(Map<String, LanguageCatalog> catalogs, LocalDateTime newestUpdate) {
+        long lastModified = System.currentTimeMillis();
+        if (newestUpdate != null) {
+            lastModified = Math.max(lastModified, newestUpdate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        long version = 0;
+        for (Map.Entry<String, LanguageCatalog> entry : catalogs.entrySet()) {
+            version += mix(fnv1a(entry.getKey()) ^ entry.getValue().contentHash());
+        }
+        snapshot = Snapshot.of(catalogs, new CatalogVersion(version, lastModified), maxEncodedBytes);
+    }
+
+    // The DTOs are @Value classes, so toString() lists every field and is the same on every JVM
+    private static long hashOf(Object value) {
+        return mix(fnv1a(value.toString()));
+    }
+
+    private static long fnv1a(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer, so summed hashes do not cancel out in structured ways
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private LanguageCatalog catalogFor(Snapshot current, String languageId) {
+        LanguageCatalog catalog = current.catalogs().get(languageId);
+        if (catalog == null) {
+            catalog = current.catalogs().getOrDefault(fallbackLanguageId, LanguageCatalog.EMPTY);
+        }
+        return catalog;
+    }
+
+    static String encodeCursor(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through: NumberFormatException is an IllegalArgumentException too
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
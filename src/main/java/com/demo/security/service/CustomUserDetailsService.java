@@ -2,27 +2,96 @@ package com.demo.security.service;
 
 import com.demo.security.entity.User;
 import com.demo.security.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    @Value("${auth.user-cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${auth.user-cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    // username -> last loaded UserDetails; null when caching is disabled
+    private Cache<String, UserDetails> cache;
+
+    @PostConstruct
+    void initCache() {
+        if (cacheEnabled) {
+            cache = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                    .recordStats()
+                    .build();
+        }
+    }
+
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (cache == null) {
+            return loadFromDatabase(username);
+        }
+        UserDetails cached = cache.get(username, this::loadFromDatabase);
+        // Hand out a copy: the authentication manager erases credentials on the instance it returns
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    // Drop the cached entry for one user after their account or roles changed
+    public void evict(String username) {
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    // Drop everything, e.g. after a role definition changed for many users at once
+    public void evictAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", cache != null);
+        if (cache != null) {
+            CacheStats cacheStats = cache.stats();
+            stats.put("size", cache.estimatedSize());
+            stats.put("hits", cacheStats.hitCount());
+            stats.put("misses", cacheStats.missCount());
+            stats.put("evictions", cacheStats.evictionCount());
+            stats.put("hitRate", cacheStats.hitRate());
+        }
+        return stats;
+    }
+
+    // Roles are fetched eagerly with the user, so the repository call is the only round trip
+    private UserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
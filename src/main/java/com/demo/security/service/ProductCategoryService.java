@@ -1,8 +1,10 @@
 package com.demo.security.service;
 
 import com.demo.security.entity.ProductCategory;
+import com.demo.security.event.CatalogChangedEvent;
 import com.demo.security.repository.ProductCategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -13,6 +15,7 @@ import java.util.Optional;
 public class ProductCategoryService {
 
     private final ProductCategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ProductCategory> getAllCategories() {
@@ -31,11 +34,15 @@ public class ProductCategoryService {
 
     @Transactional
     public ProductCategory saveCategory(ProductCategory category) {
-        return categoryRepository.save(category);
+        ProductCategory saved = categoryRepository.save(category);
+        // Category names are denormalized into every product row of the catalog
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     @Transactional
     public void deleteCategory(Integer id) {
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 }
@@ -0,0 +1,359 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductDTO;
+import com.demo.security.dto.ProductSearchDocument;
+import com.demo.security.event.CatalogChangedEvent;
+import com.demo.security.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Full-text product search over names, descriptions and category names, ranked by BM25.
+ * <p>
+ * Each language has its own inverted index: folded term -> postings sorted by product ID, each
+ * posting carrying the weighted term frequency and the document length. Postings are immutable
+ * and replaced per term, so searches run without locks while an update is applied; a search that
+ * overlaps an update may see some of that product's terms before the others.
+ * <p>
+ * The index is built on startup and on the catalog's full-rebuild interval, and updated per
+ * product after each admin change commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchService {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_QUERY_TERMS = 16;
+
+    // BM25 parameters (the usual defaults)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Each occurrence counts this many times towards the term frequency, so name matches rank first
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final CatalogService catalogService;
+
+    @Value("${catalog.fallback-language:vi}")
+    private String fallbackLanguageId;
+
+    // languageId -> index; replaced on full rebuilds, updated in place per product
+    private volatile Map<String, LanguageIndex> indexes = Map.of();
+    private volatile long lastRebuildMillis;
+
+    private record Hit(int productId, double score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuildAll() {
+        long start = System.currentTimeMillis();
+        Map<String, LanguageIndex> rebuilt = new LinkedHashMap<>();
+        for (String languageId : referenceData.getLanguageIds()) {
+            rebuilt.put(languageId, LanguageIndex.build(productRepository.findSearchDocuments(languageId, fallbackLanguageId)));
+        }
+        indexes = Map.copyOf(rebuilt);
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Search index built for {} languages in {} ms", rebuilt.size(), lastRebuildMillis);
+    }
+
+    @Scheduled(initialDelayString = "${catalog.full-rebuild-interval:600000}",
+            fixedDelayString = "${catalog.full-rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuildAll();
+        } catch (RuntimeException e) {
+            log.error("Search index rebuild failed, keeping the current index: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullRebuild()) {
+            rebuildAll();
+            return;
+        }
+        Integer productId = event.productId();
+        indexes.forEach((languageId, index) -> {
+            Optional<ProductSearchDocument> document =
+                    productRepository.findSearchDocumentById(productId, languageId, fallbackLanguageId);
+            if (document.isPresent()) {
+                index.put(document.get());
+            } else {
+                index.remove(productId);
+            }
+        });
+        log.debug("Search index updated for product {}", productId);
+    }
+
+    /**
+     * Products matching any term of the query, best first (ties by product ID).
+     * Products the catalog no longer has are skipped.
+     */
+    public List<ProductDTO> search(String languageId, String query, int limit) {
+        LanguageIndex index = indexes.get(languageId);
+        if (index == null) {
+            index = indexes.get(fallbackLanguageId);
+        }
+        if (index == null || query == null) {
+            return List.of();
+        }
+        String text = query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query;
+        Set<String> terms = new LinkedHashSet<>(SearchText.tokenize(text));
+        List<ProductDTO> results = new ArrayList<>();
+        for (Hit hit : index.search(terms.stream().limit(MAX_QUERY_TERMS).toList(), Math.min(Math.max(limit, 1), MAX_RESULTS))) {
+            catalogService.getProduct(languageId, hit.productId()).ifPresent(results::add);
+        }
+        return results;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        indexes.forEach((languageId, index) -> stats.put(languageId, Map.of(
+                "documents", index.documents.size(),
+                "terms", index.postings.size())));
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    /**
+     * Postings of one term: parallel arrays sorted by product ID. Never modified once built;
+     * an update produces a new instance.
+     */
+    private record Postings(int[] productIds, int[] frequencies, int[] lengths) {
+
+        int size() {
+            return productIds.length;
+        }
+
+        // Copy with the entry for productId added or replaced
+        Postings with(int productId, int frequency, int length) {
+            int index = Arrays.binarySearch(productIds, productId);
+            if (index >= 0) {
+                Postings copy = new Postings(productIds.clone(), frequencies.clone(), lengths.clone());
+                copy.frequencies[index] = frequency;
+                copy.lengths[index] = length;
+                return copy;
+            }
+            int at = -index - 1;
+            return new Postings(insert(productIds, at, productId), insert(frequencies, at, frequency), insert(lengths, at, length));
+        }
+
+        // Copy without productId, or null when nothing would be left
+        Postings without(int productId) {
+            int index = Arrays.binarySearch(productIds, productId);
+            if (index < 0) {
+                return this;
+            }
+            if (productIds.length == 1) {
+                return null;
+            }
+            return new Postings(delete(productIds, index), delete(frequencies, index), delete(lengths, index));
+        }
+
+        private static int[] insert(int[] values, int at, int value) {
+            int[] copy = new int[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(values, at, copy, at + 1, values.length - at);
+            return copy;
+        }
+
+        private static int[] delete(int[] values, int at) {
+            int[] copy = new int[values.length - 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+            return copy;
+        }
+    }
+
+    private static final class PostingsBuilder {
+
+        private int[] productIds = new int[4];
+        private int[] frequencies = new int[4];
+        private int[] lengths = new int[4];
+        private int size;
+
+        void add(int productId, int frequency, int length) {
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            productIds[size] = productId;
+            frequencies[size] = frequency;
+            lengths[size] = length;
+            size++;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(productIds, size), Arrays.copyOf(frequencies, size), Arrays.copyOf(lengths, size));
+        }
+    }
+
+    // Distinct terms of an indexed document, kept to find its postings again on update or delete
+    private record Document(String[] terms, int length) {
+    }
+
+    private static final class LanguageIndex {
+
+        private final Map<String, Postings> postings;
+        private final Map<Integer, Document> documents;
+        // Sum of all document lengths; written by the single writer only
+        private volatile long totalLength;
+
+        private LanguageIndex(Map<String, Postings> postings, Map<Integer, Document> documents, long totalLength) {
+            this.postings = postings;
+            this.documents = documents;
+            this.totalLength = totalLength;
+        }
+
+        // Bulk build: documents arrive sorted by product ID, so every postings list is appended in order
+        static LanguageIndex build(List<ProductSearchDocument> source) {
+            Map<String, PostingsBuilder> building = new HashMap<>();
+            Map<Integer, Document> documents = new ConcurrentHashMap<>(source.size() * 2);
+            long totalLength = 0;
+            for (ProductSearchDocument document : source) {
+                Map<String, Integer> frequencies = new HashMap<>();
+                int length = countTerms(document, frequencies);
+                int productId = document.getProductID();
+                frequencies.forEach((term, frequency) ->
+                        building.computeIfAbsent(term, k -> new PostingsBuilder()).add(productId, frequency, length));
+                documents.put(productId, new Document(frequencies.keySet().toArray(String[]::new), length));
+                totalLength += length;
+            }
+            Map<String, Postings> postings = new ConcurrentHashMap<>(building.size() * 2);
+            building.forEach((term, builder) -> postings.put(term, builder.build()));
+            return new LanguageIndex(postings, documents, totalLength);
+        }
+
+        void put(ProductSearchDocument document) {
+            remove(document.getProductID());
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = countTerms(document, frequencies);
+            int productId = document.getProductID();
+            frequencies.forEach((term, frequency) -> postings.compute(term, (t, current) -> current == null
+                    ? new Postings(new int[]{productId}, new int[]{frequency}, new int[]{length})
+                    : current.with(productId, frequency, length)));
+            documents.put(productId, new Document(frequencies.keySet().toArray(String[]::new), length));
+            totalLength += length;
+        }
+
+        void remove(int productId) {
+            Document document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms()) {
+                postings.computeIfPresent(term, (t, current) -> current.without(productId));
+            }
+            totalLength -= document.length();
+        }
+
+        // Document-at-a-time over the sorted postings: no per-document allocation, a bounded heap for the top hits
+        List<Hit> search(List<String> terms, int limit) {
+            int documentCount = documents.size();
+            if (terms.isEmpty() || documentCount == 0) {
+                return List.of();
+            }
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+            int count = lists.size();
+            double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+            double[] idf = new double[count];
+            for (int i = 0; i < count; i++) {
+                int df = lists.get(i).size();
+                idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+
+            // Worst hit on top: lowest score, then highest product ID
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(Hit::score).thenComparing(Hit::productId, Comparator.reverseOrder()));
+            int[] positions = new int[count];
+            while (true) {
+                int next = Integer.MAX_VALUE;
+                for (int i = 0; i < count; i++) {
+                    Postings list = lists.get(i);
+                    if (positions[i] < list.size()) {
+                        next = Math.min(next, list.productIds()[positions[i]]);
+                    }
+                }
+                if (next == Integer.MAX_VALUE) {
+                    break;
+                }
+                double score = 0;
+                for (int i = 0; i < count; i++) {
+                    Postings list = lists.get(i);
+                    int position = positions[i];
+                    if (position < list.size() && list.productIds()[position] == next) {
+                        int tf = list.frequencies()[position];
+                        double norm = K1 * (1 - B + B * list.lengths()[position] / averageLength);
+                        score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                        positions[i] = position + 1;
+                    }
+                }
+                // Products arrive in ascending ID order, so on equal scores the one already kept wins
+                if (top.size() < limit) {
+                    top.add(new Hit(next, score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.add(new Hit(next, score));
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingInt(Hit::productId));
+            return hits;
+        }
+
+        // Adds weighted term frequencies of all fields; returns the weighted document length
+        private static int countTerms(ProductSearchDocument document, Map<String, Integer> frequencies) {
+            return addTerms(document.getProductName(), NAME_WEIGHT, frequencies)
+                    + addTerms(document.getCategoryName(), CATEGORY_WEIGHT, frequencies)
+                    + addTerms(document.getDescription(), DESCRIPTION_WEIGHT, frequencies);
+        }
+
+        private static int addTerms(String text, int weight, Map<String, Integer> frequencies) {
+            List<String> tokens = SearchText.tokenize(text);
+            for (String token : tokens) {
+                frequencies.merge(token, weight, Integer::sum);
+            }
+            return tokens.size() * weight;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.demo.security.service;
 
+import com.demo.security.dto.ProductDTO;
 import com.demo.security.entity.Product;
+import com.demo.security.event.CatalogChangedEvent;
 import com.demo.security.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -13,16 +18,16 @@ import java.util.Optional;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
-    }
+    // Used for any product or category without a translation in the requested language
+    @Value("${catalog.fallback-language:vi}")
+    private String fallbackLanguageId;
 
+    // DTO rows in one language (with fallback); no entities are loaded or tracked
     @Transactional(readOnly = true)
-    public List<Product> getAllProductsWithTranslation(String languageId) {
-        // Method name changed from findAllWithTranslations() to findAllWithTranslation()
-        return productRepository.findAllWithTranslation();
+    public List<ProductDTO> getAllProductDtos(String languageId) {
+        return productRepository.findAllDtos(languageId, fallbackLanguageId);
     }
 
     @Transactional(readOnly = true)
@@ -38,16 +43,14 @@ public class ProductService {
 
     @Transactional
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.product(saved.getProductID()));
+        return saved;
     }
 
     @Transactional
     public void deleteProduct(Integer id) {
         productRepository.deleteById(id);
-    }
-
-    @Transactional(readOnly = true)
-    public List<Product> getProductsByCategory(Integer categoryId) {
-        return productRepository.findByCategory_ProductCategoryID(categoryId);
+        eventPublisher.publishEvent(CatalogChangedEvent.product(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Product name typeahead, one prefix trie per language.
+ * <p>
+ * Every word start of a folded product name is a key, so "phe" suggests "Cà phê sữa". Each trie
+ * node stores the best {@link #MAX_SUGGESTIONS} products below it (most stock first), so a lookup
+ * is a walk down the prefix and a copy. The trie is only materialized to a fixed depth; the nodes
+ * at that depth keep all their keys in rank order, and longer prefixes are matched by scanning
+ * that bucket.
+ * <p>
+ * Tries are built from the in-memory catalog, in the background, once the catalog version has
+ * stopped moving for one poll interval, so a burst of admin edits costs a single rebuild. A steady
+ * stream of edits still gets a rebuild once the oldest unindexed change has waited
+ * {@code catalog.suggest.max-rebuild-wait} ms.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestService {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final CatalogService catalogService;
+    private final ReferenceDataRegistry referenceData;
+
+    @Value("${catalog.fallback-language:vi}")
+    private String fallbackLanguageId;
+
+    @Value("${catalog.suggest.trie-depth:6}")
+    private int trieDepth;
+
+    @Value("${catalog.suggest.max-rebuild-wait:10000}")
+    private long maxRebuildWaitMillis;
+
+    // languageId -> trie; replaced wholesale on rebuild
+    private volatile Map<String, Trie> tries = Map.of();
+    private volatile long builtVersion = -1;
+    private volatile long lastRebuildMillis;
+    private long pendingVersion = -1;
+    // When a version other than builtVersion was first seen; 0 while the index is current
+    private long pendingSinceMillis;
+
+    @Scheduled(fixedDelayString = "${catalog.suggest.rebuild-delay:1000}")
+    public void rebuildIfChanged() {
+        long version = catalogService.getVersion().version();
+        if (version == builtVersion) {
+            pendingSinceMillis = 0;
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (pendingSinceMillis == 0) {
+            pendingSinceMillis = now;
+        }
+        // Debounce: wait until the version is the same on two consecutive polls, or for at most
+        // the max wait after the first change the index is missing
+        if (version != pendingVersion && now - pendingSinceMillis < maxRebuildWaitMillis) {
+            pendingVersion = version;
+            return;
+        }
+        pendingVersion = version;
+        try {
+            rebuild(version);
+        } catch (RuntimeException e) {
+            log.error("Suggestion index rebuild failed, keeping the current one: {}", e.getMessage());
+        }
+    }
+
+    public List<ProductDTO> suggest(String languageId, String prefix, int limit) {
+        Trie trie = tries.get(languageId);
+        if (trie == null) {
+            trie = tries.get(fallbackLanguageId);
+        }
+        String key = prefix == null ? "" : String.join(" ", SearchText.tokenize(prefix));
+        if (trie == null || key.isEmpty()) {
+            return List.of();
+        }
+        List<ProductDTO> suggestions = new ArrayList<>();
+        for (int productId : trie.lookup(key, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS))) {
+            catalogService.getProduct(languageId, productId).ifPresent(suggestions::add);
+        }
+        return suggestions;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        tries.forEach((languageId, trie) -> stats.put(languageId, Map.of(
+                "products", trie.productIds.length,
+                "nodes", trie.nodeCount)));
+        stats.put("catalogVersion", builtVersion);
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    private void rebuild(long version) {
+        long start = System.currentTimeMillis();
+        Map<String, Trie> rebuilt = new LinkedHashMap<>();
+        for (String languageId : referenceData.getLanguageIds()) {
+            rebuilt.put(languageId, Trie.build(catalogService.getProducts(languageId), trieDepth));
+        }
+        tries = Map.copyOf(rebuilt);
+        // Version was read before the products, so a change in between triggers another rebuild
+        builtVersion = version;
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.debug("Suggestion index rebuilt for catalog version {} in {} ms", version, lastRebuildMillis);
+    }
+
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = new char[0];
+        private Node[] children = NO_CHILDREN;
+        // Ranks of the best products below this node
+        private int[] top = new int[0];
+        // At the depth limit only: every key below this node in rank order, as rank << 16 | offset
+        private long[] bucket;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * Immutable once built. Products are numbered by rank (stock descending, then ID), so every
+     * list in the trie is already in result order.
+     */
+    private static final class Trie {
+
+        private final int[] productIds;
+        // Folded names by rank, for matching prefixes longer than the trie
+        private final String[] names;
+        private final Node root;
+        private final int depth;
+        private final int nodeCount;
+
+        private Trie(int[] productIds, String[] names, Node root, int depth, int nodeCount) {
+            this.productIds = productIds;
+            this.names = names;
+            this.root = root;
+            this.depth = depth;
+            this.nodeCount = nodeCount;
+        }
+
+        static Trie build(List<ProductDTO> products, int depth) {
+            List<ProductDTO> ranked = products.stream()
+                    .filter(product -> product.getProductName() != null)
+                    .sorted(Comparator.comparing((ProductDTO product) -> product.getStockQuantity() == null ? 0 : product.getStockQuantity())
+                            .reversed()
+                            .thenComparing(ProductDTO::getProductID))
+                    .toList();
+            int[] productIds = new int[ranked.size()];
+            String[] names = new String[ranked.size()];
+
+            BuildNode root = new BuildNode();
+            int[] nodeCount = {1};
+            for (int rank = 0; rank < ranked.size(); rank++) {
+                productIds[rank] = ranked.get(rank).getProductID();
+                String name = String.join(" ", SearchText.tokenize(ranked.get(rank).getProductName()));
+                names[rank] = name;
+                // Offsets are packed into 16 bits; longer names only get suggested by their first words
+                for (int offset = 0; offset < name.length() && offset <= 0xFFFF; offset++) {
+                    if (offset == 0 || name.charAt(offset - 1) == ' ') {
+                        insert(root, name, offset, rank, depth, nodeCount);
+                    }
+                }
+            }
+            return new Trie(productIds, names, root.freeze(), depth, nodeCount[0]);
+        }
+
+        // Ranks arrive in increasing order, so each node just keeps the first distinct ones
+        private static void insert(BuildNode root, String name, int offset, int rank, int depth, int[] nodeCount) {
+            BuildNode node = root;
+            int end = Math.min(name.length(), offset + depth);
+            for (int i = offset; i < end; i++) {
+                BuildNode child = node.children.get(name.charAt(i));
+                if (child == null) {
+                    child = new BuildNode();
+                    node.children.put(name.charAt(i), child);
+                    nodeCount[0]++;
+                }
+                node = child;
+                node.offer(rank);
+            }
+            if (end - offset == depth) {
+                node.addToBucket(rank, offset);
+            }
+        }
+
+        int[] lookup(String prefix, int limit) {
+            Node node = root;
+            int walk = Math.min(prefix.length(), depth);
+            for (int i = 0; i < walk && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            if (node == null || (prefix.length() > depth && node.bucket == null)) {
+                return new int[0];
+            }
+            if (prefix.length() <= depth) {
+                int count = Math.min(limit, node.top.length);
+                int[] result = new int[count];
+                for (int i = 0; i < count; i++) {
+                    result[i] = productIds[node.top[i]];
+                }
+                return result;
+            }
+            // Longer than the trie: scan the bucket, already in rank order
+            int[] result = new int[limit];
+            int count = 0;
+            int lastRank = -1;
+            for (long entry : node.bucket) {
+                int rank = (int) (entry >>> 16);
+                int offset = (int) (entry & 0xFFFF);
+                if (rank != lastRank && names[rank].startsWith(prefix, offset)) {
+                    result[count++] = productIds[rank];
+                    lastRank = rank;
+                    if (count == limit) {
+                        break;
+                    }
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    // Mutable node used while building; frozen into a compact Node afterwards
+    private static final class BuildNode {
+
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private final int[] top = new int[MAX_SUGGESTIONS];
+        private int topSize;
+        private long[] bucket;
+        private int bucketSize;
+
+        void offer(int rank) {
+            if (topSize < top.length && (topSize == 0 || top[topSize - 1] != rank)) {
+                top[topSize++] = rank;
+            }
+        }
+
+        void addToBucket(int rank, int offset) {
+            if (bucket == null) {
+                bucket = new long[2];
+            } else if (bucketSize == bucket.length) {
+                bucket = Arrays.copyOf(bucket, bucketSize * 2);
+            }
+            bucket[bucketSize++] = (long) rank << 16 | offset;
+        }
+
+        Node freeze() {
+            Node node = new Node();
+            node.top = Arrays.copyOf(top, topSize);
+            node.bucket = bucket == null ? null : Arrays.copyOf(bucket, bucketSize);
+            if (!children.isEmpty()) {
+                node.labels = new char[children.size()];
+                node.children = new Node[children.size()];
+                int i = 0;
+                for (Map.Entry<Character, BuildNode> entry : children.entrySet()) {
+                    node.labels[i] = entry.getKey();
+                    node.children[i] = entry.getValue().freeze();
+                    i++;
+                }
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.demo.security.service;
+
+import com.demo.security.entity.Language;
+import com.demo.security.entity.Role;
+import com.demo.security.repository.LanguageRepository;
+import com.demo.security.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the Role and Language tables, so request paths resolve
+ * roles and languages without touching the database.
+ * <p>
+ * Loaded once the seed data is in place, reloaded after a role is saved or deleted,
+ * and re-read on a fixed interval to pick up changes made by other instances or by hand.
+ * Lookups hand out fresh, unmanaged entities carrying only the snapshot columns.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataRegistry {
+
+    private final RoleRepository roleRepository;
+    private final LanguageRepository languageRepository;
+
+    private record Snapshot(Map<String, Integer> roleIdsByName, Map<String, String> languageNamesById) {
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    // Before other ready listeners (e.g. the catalog) that read languages from here
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void reload() {
+        Snapshot loaded = new Snapshot(
+                roleRepository.findAll().stream()
+                        .collect(Collectors.toUnmodifiableMap(Role::getRoleName, Role::getRoleID)),
+                languageRepository.findAll().stream()
+                        .collect(Collectors.toUnmodifiableMap(Language::getLanguageID, Language::getLanguage)));
+        if (!loaded.equals(snapshot)) {
+            snapshot = loaded;
+            log.info("Reference data loaded: {} roles, {} languages",
+                    loaded.roleIdsByName().size(), loaded.languageNamesById().size());
+        }
+    }
+
+    // Both tables hold a handful of rows, so the poll simply re-reads them and swaps only on change
+    @Scheduled(initialDelayString = "${reference-data.refresh-interval:300000}",
+            fixedDelayString = "${reference-data.refresh-interval:300000}")
+    public void poll() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh reference data, keeping the current snapshot: {}", e.getMessage());
+        }
+    }
+
+    public Optional<Role> findRole(String roleName) {
+        Integer id = snapshot.roleIdsByName().get(roleName);
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Role.builder()
+                .roleID(id)
+                .roleName(roleName)
+                .build());
+    }
+
+    // Role with name and ID only; enough to write a UserRole row
+    public Role getRoleReference(String roleName) {
+        Optional<Role> role = findRole(roleName);
+        if (role.isEmpty()) {
+            // Created elsewhere since the last load, or asked for before startup finished
+            reload();
+            role = findRole(roleName);
+        }
+        return role.orElseThrow(() -> new RuntimeException("Role not found"));
+    }
+
+    public Optional<Language> findLanguage(String languageId) {
+        String name = languageId == null ? null : snapshot.languageNamesById().get(languageId);
+        return name == null ? Optional.empty() : Optional.of(new Language(languageId, name));
+    }
+
+    public Set<String> getLanguageIds() {
+        return snapshot.languageNamesById().keySet();
+    }
+
+    // The requested language if it exists, otherwise the fallback
+    public String resolveLanguageId(String languageId, String fallback) {
+        return languageId != null && snapshot.languageNamesById().containsKey(languageId) ? languageId : fallback;
+    }
+}
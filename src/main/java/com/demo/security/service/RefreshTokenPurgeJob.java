@@ -0,0 +1,116 @@
+package com.demo.security.service;
+
+import com.demo.security.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes expired refresh tokens in the background.
+ * <p>
+ * Rows are removed {@code batch-size} at a time, each batch in its own transaction via
+ * the {@code idx_expiry} index, with a pause between batches so logins writing to the same
+ * table never wait behind one long delete. A run stops after {@code max-batches}; whatever
+ * is left is picked up by the next run and reported as backlog.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenPurgeJob {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh-token.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.refresh-token.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${jwt.refresh-token.purge.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${jwt.refresh-token.purge.max-batches:500}")
+    private int maxBatches;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder totalPurged = new LongAdder();
+    private final LongAdder totalBatches = new LongAdder();
+    private final LongAdder totalBatchNanos = new LongAdder();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+    private volatile long lastRunPurged;
+    private volatile long backlog = -1;
+    private volatile LocalDateTime lastRunAt;
+
+    @Scheduled(initialDelayString = "${jwt.refresh-token.purge.initial-delay:60000}",
+            fixedDelayString = "${jwt.refresh-token.purge.interval:3600000}")
+    public void purge() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastRunPurged = purgeExpired();
+            backlog = refreshTokenRepository.countByExpiryDateBefore(LocalDateTime.now());
+            lastRunAt = LocalDateTime.now();
+            if (lastRunPurged > 0 || backlog > 0) {
+                log.info("Purged {} expired refresh tokens, {} still pending", lastRunPurged, backlog);
+            }
+        } catch (RuntimeException e) {
+            log.error("Refresh token purge failed: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long batches = totalBatches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunPurged", lastRunPurged);
+        stats.put("totalPurged", totalPurged.sum());
+        stats.put("batches", batches);
+        stats.put("avgBatchMillis", batches == 0 ? 0.0 : totalBatchNanos.sum() / 1_000_000.0 / batches);
+        stats.put("maxBatchMillis", maxBatchNanos.get() / 1_000_000.0);
+        // Expired rows left after the last run; -1 until the first run completes
+        stats.put("backlog", backlog);
+        return stats;
+    }
+
+    private long purgeExpired() {
+        // Fixed cutoff so rows expiring during the run do not keep it going
+        LocalDateTime cutoff = LocalDateTime.now();
+        long purged = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            long start = System.nanoTime();
+            int deleted = refreshTokenRepository.deleteExpiredBatch(cutoff, batchSize);
+            long elapsed = System.nanoTime() - start;
+
+            totalBatches.increment();
+            totalBatchNanos.add(elapsed);
+            maxBatchNanos.accumulateAndGet(elapsed, Math::max);
+            totalPurged.add(deleted);
+            purged += deleted;
+
+            if (deleted < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return purged;
+    }
+}
@@ -3,51 +3,61 @@ package com.demo.security.service;
 import com.demo.security.entity.RefreshToken;
 import com.demo.security.entity.User;
 import com.demo.security.repository.RefreshTokenRepository;
-import com.demo.security.repository.UserRepository;
 import com.demo.security.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Optional;
-import java.util.UUID;
 
+/**
+ * Refresh tokens are opaque random strings; only their SHA-256 hash is stored, so the
+ * unique index stays a fixed 32 bytes and a database leak does not expose live sessions.
+ * A user may hold several sessions (one per device); the oldest are evicted past the cap.
+ */
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private static final int TOKEN_BYTES = 32;
+
     private final RefreshTokenRepository refreshTokenRepository;
-    private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
+    private final SecureRandom secureRandom = new SecureRandom();
 
-    @Transactional
-    public RefreshToken createRefreshToken(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Delete old refresh token if exists
-        refreshTokenRepository.findByUser(user)
-                .ifPresent(refreshTokenRepository::delete);
-
-        // Generate new refresh token
-        String token = UUID.randomUUID().toString();
+    @Value("${jwt.refresh-token.max-sessions:5}")
+    private int maxSessions;
 
-        LocalDateTime expiryDate = LocalDateTime.now()
-                .plusSeconds(jwtUtil.getRefreshTokenExpiration() / 1000);
+    // Returns the raw token for the client; it cannot be recovered from the database later
+    @Transactional
+    public String createRefreshToken(String username) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
 
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(token)
-                .user(user)
-                .expiryDate(expiryDate)
-                .build();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime expiryDate = now.plusSeconds(jwtUtil.getRefreshTokenExpiration() / 1000);
 
-        return refreshTokenRepository.save(refreshToken);
+        // Insert and eviction run under the user's row lock: concurrent logins of the same user
+        // queue here, so each sees the others' sessions and the cap holds when they commit
+        Integer userId = refreshTokenRepository.lockUserId(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        refreshTokenRepository.insertForUser(hash(token), userId, expiryDate, now);
+        refreshTokenRepository.deleteOldestSessions(userId, Math.max(maxSessions, 1) - 1);
+        return token;
     }
 
     @Transactional(readOnly = true)
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHash(hash(token));
     }
 
     @Transactional
@@ -64,14 +74,17 @@ public class RefreshTokenService {
         refreshTokenRepository.deleteByUser(user);
     }
 
+    // Ends only the session this token belongs to; other devices stay logged in
     @Transactional
     public void deleteByToken(String token) {
-        refreshTokenRepository.findByToken(token)
-                .ifPresent(refreshTokenRepository::delete);
+        refreshTokenRepository.deleteByTokenHash(hash(token));
     }
 
-    @Transactional
-    public void deleteExpiredTokens() {
-        refreshTokenRepository.deleteAllExpiredTokens(LocalDateTime.now());
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
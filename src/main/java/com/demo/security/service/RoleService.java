@@ -5,6 +5,8 @@ import com.demo.security.repository.RoleRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,8 @@ import java.util.Optional;
 public class RoleService {
 
     private final RoleRepository roleRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final ReferenceDataRegistry referenceData;
 
     @Transactional(readOnly = true)
     public List<Role> getAllRoles() {
@@ -25,18 +29,33 @@ public class RoleService {
         return roleRepository.findById(id);
     }
 
-    @Transactional(readOnly = true)
+    // Served from the in-memory registry: only ID and name are populated
     public Optional<Role> findByRoleName(String roleName) {
-        return roleRepository.findByRoleName(roleName);
+        return referenceData.findRole(roleName);
     }
 
     @Transactional
     public Role saveRole(Role role) {
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        // Role names feed every cached authority set
+        userDetailsService.evictAll();
+        reloadReferenceDataAfterCommit();
+        return saved;
     }
 
     @Transactional
     public void deleteRole(Integer id) {
         roleRepository.deleteById(id);
+        userDetailsService.evictAll();
+        reloadReferenceDataAfterCommit();
+    }
+
+    private void reloadReferenceDataAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                referenceData.reload();
+            }
+        });
     }
 }
@@ -0,0 +1,73 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.TokenValidationResult;
+import com.demo.security.security.AccessTokenVerifier;
+import com.demo.security.security.VerifiedToken;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class TokenValidationService {
+
+    // Below this many tokens a batch is verified inline; hand-off would cost more than it saves
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    private final AccessTokenVerifier tokenVerifier;
+    private final ThreadPoolTaskExecutor executor;
+
+    public TokenValidationService(AccessTokenVerifier tokenVerifier,
+                                  @Qualifier("tokenValidationExecutor") ThreadPoolTaskExecutor executor) {
+        this.tokenVerifier = tokenVerifier;
+        this.executor = executor;
+    }
+
+    // Results are returned in the same order as the tokens
+    public List<TokenValidationResult> validateAll(List<String> tokens) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, ceilDiv(tokens.size(), executor.getMaxPoolSize()));
+        if (tokens.size() <= chunkSize) {
+            return validateChunk(tokens);
+        }
+
+        List<CompletableFuture<List<TokenValidationResult>>> futures = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            List<String> chunk = tokens.subList(from, Math.min(from + chunkSize, tokens.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> validateChunk(chunk), executor));
+        }
+
+        List<TokenValidationResult> results = new ArrayList<>(tokens.size());
+        for (CompletableFuture<List<TokenValidationResult>> future : futures) {
+            results.addAll(future.join());
+        }
+        return results;
+    }
+
+    private List<TokenValidationResult> validateChunk(List<String> tokens) {
+        List<TokenValidationResult> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(validate(token));
+        }
+        return results;
+    }
+
+    private TokenValidationResult validate(String token) {
+        VerifiedToken verified = tokenVerifier.verify(token);
+        if (verified == null) {
+            return TokenValidationResult.builder().valid(false).build();
+        }
+        return TokenValidationResult.builder()
+                .valid(true)
+                .subject(verified.getSubject())
+                .roles(verified.getRoles())
+                .expiresIn(verified.getRemainingMillis())
+                .build();
+    }
+
+    private static int ceilDiv(int x, int y) {
+        return (x + y - 1) / y;
+    }
+}
@@ -0,0 +1,348 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.UserImportReport;
+import com.demo.security.dto.UserRegistrationDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk creation of users with the default role from a CSV or NDJSON stream.
+ * <p>
+ * The input is read line by line and processed in chunks: rows are validated, their passwords
+ * hashed in parallel on a dedicated pool, then the whole chunk is written in one transaction: one
+ * query for usernames and emails that are already taken, one JDBC batch {@code INSERT} for the
+ * rest and one {@code INSERT ... SELECT} for their role links. If that transaction fails (say a name
+ * was registered between the check and the insert), the chunk is written again one row per
+ * transaction, so only the failing rows are lost. Rows rejected by validation, as duplicates or by
+ * the database are reported and skipped; the rest of the file still goes in.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final String DEFAULT_ROLE = "ROLE_USER";
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "fullname", "password");
+
+    // Column collations are case-insensitive, so matches are compared lower-cased
+    private static final String SELECT_EXISTING =
+            "SELECT Username, Email FROM `User` WHERE Username IN (:usernames) OR Email IN (:emails)";
+
+    private static final String INSERT_USER =
+            "INSERT INTO `User` (Username, `Password`, Email, FullName, Enabled, CreatedDate, UpdatedDate) " +
+            "VALUES (?, ?, ?, ?, b'1', ?, ?)";
+
+    // Only users without any role yet, so a link can never grant a role to an existing account
+    private static final String INSERT_USER_ROLES =
+            "INSERT INTO UserRole (UserID, RoleID) " +
+            "SELECT u.UserID, :roleId FROM `User` u LEFT JOIN UserRole ur ON ur.UserID = u.UserID " +
+            "WHERE u.Username IN (:usernames) AND ur.UserID IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor hashExecutor;
+    private final ReferenceDataRegistry referenceData;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    // Same hash format as the login encoder, but not routed through its bounded pool
+    private final PasswordEncoder hasher = new BCryptPasswordEncoder();
+
+    @Value("${auth.user-import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${auth.user-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Qualifier("userImportHashExecutor") ThreadPoolTaskExecutor hashExecutor,
+                             ReferenceDataRegistry referenceData,
+                             Validator validator,
+                             ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hashExecutor = hashExecutor;
+        this.referenceData = referenceData;
+        this.validator = validator;
+        this.objectMapper = objectMapper.copy()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    private record Row(int line, UserRegistrationDTO user) {
+    }
+
+    // Applied to the import state only once the chunk's transaction committed
+    private record ChunkResult(int imported, List<UserImportReport.RowError> rejected) {
+    }
+
+    public UserImportReport importUsers(InputStream input, boolean ndjson) throws IOException {
+        Integer roleId = referenceData.getRoleReference(DEFAULT_ROLE).getRoleID();
+        ImportState state = new ImportState();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            int[] columns = ndjson ? null : readCsvHeader(reader.readLine());
+            int lineNumber = ndjson ? 0 : 1;
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                state.total++;
+                Row row = parse(line, lineNumber, columns, state);
+                if (row != null && isValid(row, state)) {
+                    chunk.add(row);
+                }
+                if (chunk.size() >= chunkSize) {
+                    insertChunk(chunk, roleId, state);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, roleId, state);
+            }
+        }
+
+        log.info("User import finished: {} rows, {} imported, {} failed", state.total, state.imported, state.failed);
+        return UserImportReport.builder()
+                .total(state.total)
+                .imported(state.imported)
+                .failed(state.failed)
+                .errors(state.errors)
+                .build();
+    }
+
+    private Row parse(String line, int lineNumber, int[] columns, ImportState state) {
+        UserRegistrationDTO user;
+        if (columns == null) {
+            try {
+                user = objectMapper.readValue(line, UserRegistrationDTO.class);
+            } catch (JsonProcessingException e) {
+                state.reject(lineNumber, null, "Malformed JSON");
+                return null;
+            }
+        } else {
+            List<String> fields = splitCsv(line);
+            user = UserRegistrationDTO.builder()
+                    .username(field(fields, columns[0]))
+                    .email(field(fields, columns[1]))
+                    .fullName(field(fields, columns[2]))
+                    .password(field(fields, columns[3]))
+                    .build();
+        }
+        // Imports carry one password column; confirmation only matters for interactive sign-up
+        if (user.getConfirmPassword() == null) {
+            user.setConfirmPassword(user.getPassword());
+        }
+        return new Row(lineNumber, user);
+    }
+
+    private boolean isValid(Row row, ImportState state) {
+        UserRegistrationDTO user = row.user();
+        Set<ConstraintViolation<UserRegistrationDTO>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<UserRegistrationDTO> first = violations.iterator().next();
+            state.reject(row.line(), user.getUsername(), first.getPropertyPath() + ": " + first.getMessage());
+            return false;
+        }
+        if (!user.getPassword().equals(user.getConfirmPassword())) {
+            state.reject(row.line(), user.getUsername(), "Passwords do not match");
+            return false;
+        }
+        if (!state.seenUsernames.add(user.getUsername().toLowerCase(Locale.ROOT))) {
+            state.reject(row.line(), user.getUsername(), "Duplicate username in file");
+            return false;
+        }
+        if (!state.seenEmails.add(user.getEmail().toLowerCase(Locale.ROOT))) {
+            state.reject(row.line(), user.getUsername(), "Duplicate email in file");
+            return false;
+        }
+        return true;
+    }
+
+    private void insertChunk(List<Row> chunk, Integer roleId, ImportState state) {
+        List<CompletableFuture<String>> hashes = chunk.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> hasher.encode(row.user().getPassword()), hashExecutor))
+                .toList();
+        List<String> encoded = hashes.stream().map(CompletableFuture::join).toList();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> writeChunk(chunk, encoded, roleId, now));
+        } catch (DataAccessException e) {
+            log.debug("User import chunk failed, writing its rows one by one: {}", e.getMessage());
+            result = writeRows(chunk, encoded, roleId, now);
+        }
+        for (UserImportReport.RowError error : result.rejected()) {
+            state.reject(error.getLine(), error.getUsername(), error.getMessage());
+        }
+        state.imported += result.imported();
+    }
+
+    private ChunkResult writeChunk(List<Row> chunk, List<String> encoded, Integer roleId, Timestamp now) {
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        namedJdbcTemplate.query(SELECT_EXISTING, new MapSqlParameterSource()
+                .addValue("usernames", chunk.stream().map(row -> row.user().getUsername()).toList())
+                .addValue("emails", chunk.stream().map(row -> row.user().getEmail()).toList()), rs -> {
+            takenUsernames.add(rs.getString("Username").toLowerCase(Locale.ROOT));
+            takenEmails.add(rs.getString("Email").toLowerCase(Locale.ROOT));
+        });
+
+        List<UserImportReport.RowError> rejected = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+        List<String> usernames = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            UserRegistrationDTO user = row.user();
+            if (takenUsernames.contains(user.getUsername().toLowerCase(Locale.ROOT))) {
+                rejected.add(new UserImportReport.RowError(row.line(), user.getUsername(), "Username already exists"));
+            } else if (takenEmails.contains(user.getEmail().toLowerCase(Locale.ROOT))) {
+                rejected.add(new UserImportReport.RowError(row.line(), user.getUsername(), "Email already exists"));
+            } else {
+                batchArgs.add(new Object[]{user.getUsername(), encoded.get(i), user.getEmail(), user.getFullName(), now, now});
+                usernames.add(user.getUsername());
+            }
+        }
+        if (batchArgs.isEmpty()) {
+            return new ChunkResult(0, rejected);
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, batchArgs);
+        // A single statement, so its count is exact even when the driver rewrites the batch above
+        int imported = namedJdbcTemplate.update(INSERT_USER_ROLES, new MapSqlParameterSource()
+                .addValue("roleId", roleId)
+                .addValue("usernames", usernames));
+        return new ChunkResult(imported, rejected);
+    }
+
+    // One transaction per row; a row the database refuses is rejected instead of failing the import
+    private ChunkResult writeRows(List<Row> chunk, List<String> encoded, Integer roleId, Timestamp now) {
+        int imported = 0;
+        List<UserImportReport.RowError> rejected = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            List<String> hash = List.of(encoded.get(i));
+            try {
+                ChunkResult result = transactionTemplate.execute(status -> writeChunk(List.of(row), hash, roleId, now));
+                imported += result.imported();
+                rejected.addAll(result.rejected());
+            } catch (DuplicateKeyException e) {
+                // Registered again between this row's own check and insert
+                rejected.add(new UserImportReport.RowError(row.line(), row.user().getUsername(), "Username or email already exists"));
+            } catch (DataAccessException e) {
+                log.warn("User import row {} could not be saved: {}", row.line(), e.getMessage());
+                rejected.add(new UserImportReport.RowError(row.line(), row.user().getUsername(), "Could not be saved"));
+            }
+        }
+        return new ChunkResult(imported, rejected);
+    }
+
+    // Maps username, email, fullName, password to their column positions
+    private static int[] readCsvHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        List<String> names = splitCsv(header.replace("\uFEFF", ""));
+        for (int i = 0; i < names.size(); i++) {
+            positions.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream()
+                .filter(column -> !positions.containsKey(column))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + missing);
+        }
+        return CSV_COLUMNS.stream().mapToInt(positions::get).toArray();
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private final class ImportState {
+        private int total;
+        private int imported;
+        private int failed;
+        private final List<UserImportReport.RowError> errors = new ArrayList<>();
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+
+        void reject(int line, String username, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new UserImportReport.RowError(line, username, message));
+            }
+        }
+    }
+}
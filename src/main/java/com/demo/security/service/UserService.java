@@ -1,20 +1,37 @@
 package com.demo.security.service;
 
+import com.demo.security.dto.UserProfileDTO;
+import com.demo.security.dto.UserProfileView;
+import com.demo.security.dto.UserRegistrationDTO;
 import com.demo.security.entity.User;
+import com.demo.security.exception.DuplicateUserException;
 import com.demo.security.repository.UserRepository;
+import com.demo.security.security.AccessTokenVerifier;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final String DEFAULT_ROLE = "ROLE_USER";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AccessTokenVerifier tokenVerifier;
+    private final CustomUserDetailsService userDetailsService;
+    private final ReferenceDataRegistry referenceData;
 
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
@@ -31,27 +48,104 @@ public class UserService {
         return userRepository.findByUsername(username);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<UserProfileDTO> getProfile(String username) {
+        return userRepository.findProfileByUsername(username).map(this::toProfile);
+    }
+
+    private UserProfileDTO toProfile(UserProfileView view) {
+        String roleNames = view.getRoleNames();
+        return UserProfileDTO.builder()
+                .userID(view.getUserID())
+                .username(view.getUsername())
+                .email(view.getEmail())
+                .fullName(view.getFullName())
+                .enabled(view.getEnabled())
+                .createdDate(view.getCreatedDate())
+                .updatedDate(view.getUpdatedDate())
+                .roles(roleNames == null || roleNames.isEmpty() ? List.of() : List.of(roleNames.split(",")))
+                .build();
+    }
+
     @Transactional
     public User saveUser(User user) {
         if (user.getUserID() == null) {
             // New user - encode password
             user.setPassword(passwordEncoder.encode(user.getPassword()));
+        } else {
+            // Enabled flag or roles may have changed - outstanding tokens must not keep the old state
+            onUserChanged(user.getUsername());
         }
         return userRepository.save(user);
     }
 
+    /**
+     * Create a user with the default role in a single write transaction.
+     * Duplicates are not pre-checked: the UNIQUE constraints on Username and Email reject them,
+     * which is also what keeps two concurrent sign-ups for the same name from both succeeding.
+     * Not transactional itself, so no connection is held while the password is hashed.
+     *
+     * @throws DuplicateUserException if the username or email is already taken
+     */
+    public User registerUser(UserRegistrationDTO registration) {
+        User user = User.builder()
+                .username(registration.getUsername())
+                .password(passwordEncoder.encode(registration.getPassword()))
+                .email(registration.getEmail())
+                .fullName(registration.getFullName())
+                .enabled(true)
+                .roles(new HashSet<>(Set.of(referenceData.getRoleReference(DEFAULT_ROLE))))
+                .build();
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicate(e);
+        }
+    }
+
     @Transactional
     public void deleteUser(Integer id) {
+        userRepository.findById(id)
+                .ifPresent(user -> onUserChanged(user.getUsername()));
         userRepository.deleteById(id);
     }
 
-    @Transactional(readOnly = true)
-    public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+    private void onUserChanged(String username) {
+        tokenVerifier.invalidateUser(username);
+        userDetailsService.evict(username);
+
+        // Evict again once committed so a concurrent load cannot re-cache the pre-change row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsService.evict(username);
+                }
+            });
+        }
     }
 
-    @Transactional(readOnly = true)
-    public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+    private RuntimeException translateDuplicate(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : keyName(e.getMostSpecificCause().getMessage());
+        constraint = constraint.toLowerCase(Locale.ROOT);
+        if (constraint.contains("username")) {
+            return new DuplicateUserException("Username already exists");
+        }
+        if (constraint.contains("email")) {
+            return new DuplicateUserException("Email already registered");
+        }
+        return e;
+    }
+
+    // MySQL: "Duplicate entry 'x' for key 'User.Username'"; only the key part names the constraint
+    private static String keyName(String message) {
+        if (message == null) {
+            return "";
+        }
+        int index = message.lastIndexOf("for key");
+        return index >= 0 ? message.substring(index) : message;
     }
 }
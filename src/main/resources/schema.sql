@@ -78,13 +78,30 @@ CREATE TABLE UserRole(
 -- RefreshToken Table (NEW for JWT)
 CREATE TABLE RefreshToken(
   TokenID INT PRIMARY KEY AUTO_INCREMENT,
-  Token VARCHAR(500) NOT NULL UNIQUE,
+  TokenHash BINARY(32) NOT NULL UNIQUE,
   UserID INT NOT NULL,
   ExpiryDate DATETIME NOT NULL,
   CreatedDate DATETIME DEFAULT CURRENT_TIMESTAMP,
   FOREIGN KEY (UserID) REFERENCES `User`(UserID) ON DELETE CASCADE,
-  INDEX idx_token (Token),
-  INDEX idx_user (UserID)
+  INDEX idx_user (UserID),
+  INDEX idx_expiry (ExpiryDate)
+);
+
+-- JWT signing keys (rotated automatically, public halves served as JWKS)
+CREATE TABLE JwtSigningKey(
+  Kid VARCHAR(64) PRIMARY KEY,
+  Algorithm VARCHAR(10) NOT NULL,
+  PublicKey TEXT NOT NULL,
+  PrivateKey TEXT NOT NULL,
+  CreatedDate DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  INDEX idx_created (CreatedDate)
+);
+
+-- Revoked access tokens by jti, kept until the token would have expired
+CREATE TABLE RevokedAccessToken(
+  Jti VARCHAR(36) PRIMARY KEY,
+  ExpiresAt DATETIME NOT NULL,
+  INDEX idx_expires (ExpiresAt)
 );
 
 -- Sample Data
@@ -95,7 +112,8 @@ INSERT INTO Language (LanguageID, Language) VALUES
 INSERT INTO Role (RoleID, RoleName, Description) VALUES
 (0, 'ROLE_ADMIN', 'Administrator with full access'),
 (1, 'ROLE_MANAGER', 'Manager with limited admin access'),
-(2, 'ROLE_USER', 'Regular user with read-only access');
+(2, 'ROLE_USER', 'Regular user with read-only access'),
+(3, 'ROLE_GATEWAY', 'Service accounts that validate tokens in bulk');
 
 -- Password: admin123 (BCrypt encoded)
 -- Password for all: 123123 (BCrypt hash: $2a$10$wH6QwQwQwQwQwQwQwQwQwOQwQwQwQwQwQwQwQwQwQwQwQwQwQ)
@@ -0,0 +1,145 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductCategoryDTO;
+import com.demo.security.dto.ProductDTO;
+import com.demo.security.dto.ProductFilterCriteria;
+import com.demo.security.dto.ProductFilterResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class CatalogFilterIndexTests {
+
+	private static final int SHIPPED = 1;
+	private static final int NOT_SHIPPED = 2;
+
+	private static final List<ProductCategoryDTO> CATEGORIES = List.of(
+			new ProductCategoryDTO(SHIPPED, "Trà", true),
+			new ProductCategoryDTO(NOT_SHIPPED, "Bánh", false));
+
+	@Test
+	void priceRangeIsInclusiveAndRoundsFractionalBoundsInwards() {
+		CatalogFilterIndex index = CatalogFilterIndex.build(List.of(
+				product(1, "10.00", null, SHIPPED, 1),
+				product(2, "10.01", null, SHIPPED, 1),
+				product(3, "20.00", null, SHIPPED, 1)), CATEGORIES);
+
+		assertThat(ids(index, price("10.00", "20.00"))).containsExactly(1, 2, 3);
+		assertThat(ids(index, price("10.001", "19.999"))).containsExactly(2);
+		assertThat(ids(index, price(null, "10.009"))).containsExactly(1);
+		assertThat(ids(index, price("20.01", null))).isEmpty();
+	}
+
+	@Test
+	void negativeValuesSortBelowPositiveOnes() {
+		CatalogFilterIndex index = CatalogFilterIndex.build(List.of(
+				product(1, "5.00", "-1.00", SHIPPED, 1),
+				product(2, "-1000.50", "2.00", SHIPPED, 1),
+				product(3, "-0.01", null, SHIPPED, 1)), CATEGORIES);
+
+		assertThat(ids(index, price(null, "0"))).containsExactly(2, 3);
+		assertThat(ids(index, price("-0.005", "0.005"))).isEmpty();
+		assertThat(ids(index, ProductFilterCriteria.builder().maxWeight(BigDecimal.ZERO).build())).containsExactly(1);
+	}
+
+	@Test
+	void equalValuesKeepEveryOrdinal() {
+		List<ProductDTO> products = new ArrayList<>();
+		for (int id = 1; id <= 50; id++) {
+			products.add(product(id, id % 2 == 0 ? "7.00" : "3.00", "1.50", SHIPPED, 1));
+		}
+		CatalogFilterIndex index = CatalogFilterIndex.build(products, CATEGORIES);
+
+		assertThat(ids(index, price("7", "7"))).hasSize(25).allMatch(id -> id % 2 == 0);
+		assertThat(ids(index, ProductFilterCriteria.builder().minWeight(new BigDecimal("1.5")).maxWeight(new BigDecimal("1.5")).build()))
+				.hasSize(50);
+	}
+
+	@Test
+	void extremeBoundsAreClampedWithoutScaling() {
+		CatalogFilterIndex index = CatalogFilterIndex.build(List.of(
+				product(1, "-5.00", null, SHIPPED, 1),
+				product(2, "5.00", null, SHIPPED, 1)), CATEGORIES);
+
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+			assertThat(ids(index, price("1e100000000", null))).isEmpty();
+			assertThat(ids(index, price("-1e100000000", "1e100000000"))).containsExactly(1, 2);
+			assertThat(ids(index, price("1e-100000000", null))).containsExactly(2);
+			assertThat(ids(index, price(null, "-1e-100000000"))).containsExactly(1);
+		});
+	}
+
+	@Test
+	void eachFacetIgnoresItsOwnCriterion() {
+		CatalogFilterIndex index = CatalogFilterIndex.build(List.of(
+				product(1, "10.00", null, SHIPPED, 5),
+				product(2, "20.00", null, SHIPPED, 0),
+				product(3, "30.00", null, NOT_SHIPPED, 5),
+				product(4, "40.00", null, NOT_SHIPPED, 0),
+				product(5, "50.00", null, SHIPPED, 5)), CATEGORIES);
+
+		ProductFilterResult result = index.filter(ProductFilterCriteria.builder()
+				.categoryId(SHIPPED)
+				.inStock(true)
+				.maxPrice(new BigDecimal("40"))
+				.build(), 0, 10);
+
+		assertThat(result.getProducts()).extracting(ProductDTO::getProductID).containsExactly(1);
+		assertThat(result.getTotal()).isEqualTo(1);
+		// In stock and at most 40, any category
+		assertThat(result.getCategoryCounts()).isEqualTo(Map.of(SHIPPED, 1, NOT_SHIPPED, 1));
+		// Category 1 and at most 40, in stock or not
+		assertThat(result.getInStockCount()).isEqualTo(1);
+		assertThat(result.getShippableCount()).isEqualTo(1);
+		// Category 1 and in stock, any price
+		assertThat(result.getMinPrice()).isEqualByComparingTo("10");
+		assertThat(result.getMaxPrice()).isEqualByComparingTo("50");
+	}
+
+	@Test
+	void pagesContinueAfterTheGivenOrdinal() {
+		List<ProductDTO> products = new ArrayList<>();
+		for (int id = 1; id <= 5; id++) {
+			products.add(product(id * 10, "1.00", null, SHIPPED, 1));
+		}
+		CatalogFilterIndex index = CatalogFilterIndex.build(products, CATEGORIES);
+
+		ProductFilterResult first = index.filter(new ProductFilterCriteria(), 0, 2);
+		ProductFilterResult last = index.filter(new ProductFilterCriteria(), 4, 2);
+
+		assertThat(first.getProducts()).extracting(ProductDTO::getProductID).containsExactly(10, 20);
+		assertThat(first.getNextCursor()).isEqualTo(CatalogService.encodeCursor(20));
+		assertThat(first.getTotal()).isEqualTo(5);
+		assertThat(last.getProducts()).extracting(ProductDTO::getProductID).containsExactly(50);
+		assertThat(last.getNextCursor()).isNull();
+	}
+
+	private static List<Integer> ids(CatalogFilterIndex index, ProductFilterCriteria criteria) {
+		return index.filter(criteria, 0, 1000).getProducts().stream().map(ProductDTO::getProductID).toList();
+	}
+
+	private static ProductFilterCriteria price(String min, String max) {
+		return ProductFilterCriteria.builder()
+				.minPrice(min == null ? null : new BigDecimal(min))
+				.maxPrice(max == null ? null : new BigDecimal(max))
+				.build();
+	}
+
+	private static ProductDTO product(int id, String price, String weight, int categoryId, int stock) {
+		return ProductDTO.builder()
+				.productID(id)
+				.price(new BigDecimal(price))
+				.weight(weight == null ? null : new BigDecimal(weight))
+				.productCategoryID(categoryId)
+				.stockQuantity(stock)
+				.productName("Sản phẩm " + id)
+				.build();
+	}
+}
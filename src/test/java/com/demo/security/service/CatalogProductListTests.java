@@ -0,0 +1,71 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogProductListTests {
+
+	@Test
+	void matchesASortedMapThroughInsertsReplacesAndRemoves() {
+		Random random = new Random(42);
+		TreeMap<Integer, ProductDTO> expected = new TreeMap<>();
+		CatalogProductList list = CatalogProductList.EMPTY;
+		for (int step = 0; step < 5_000; step++) {
+			int id = random.nextInt(2_000);
+			if (random.nextInt(4) == 0) {
+				expected.remove(id);
+				list = list.with(id, null);
+			} else {
+				ProductDTO product = product(id, step);
+				expected.put(id, product);
+				list = list.with(id, product);
+			}
+		}
+
+		List<ProductDTO> values = new ArrayList<>(expected.values());
+		assertThat(list).containsExactlyElementsOf(values);
+		for (int i = 0; i < values.size(); i++) {
+			assertThat(list.get(i)).isSameAs(values.get(i));
+		}
+		List<Integer> ids = new ArrayList<>(expected.keySet());
+		for (int id = -1; id <= 2_001; id++) {
+			assertThat(list.search(id)).isEqualTo(Collections.binarySearch(ids, id));
+			assertThat(list.find(id)).isSameAs(expected.get(id));
+		}
+	}
+
+	@Test
+	void writesLeaveEarlierVersionsUntouched() {
+		List<ProductDTO> products = new ArrayList<>();
+		for (int id = 1; id <= 1_000; id++) {
+			products.add(product(id, 0));
+		}
+		CatalogProductList original = CatalogProductList.of(products);
+
+		CatalogProductList updated = original.with(500, product(500, 1)).with(1_001, product(1_001, 1)).with(1, null);
+
+		assertThat(original).containsExactlyElementsOf(products);
+		assertThat(updated).hasSize(1_000);
+		assertThat(updated.find(500).getStockQuantity()).isEqualTo(1);
+		assertThat(updated.get(0).getProductID()).isEqualTo(2);
+		assertThat(updated.get(999).getProductID()).isEqualTo(1_001);
+	}
+
+	private static ProductDTO product(int id, int stock) {
+		return ProductDTO.builder()
+				.productID(id)
+				.price(BigDecimal.ONE)
+				.productCategoryID(1)
+				.stockQuantity(stock)
+				.build();
+	}
+}
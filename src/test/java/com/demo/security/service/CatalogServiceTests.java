@@ -0,0 +1,167 @@
+package com.demo.security.service;
+
+import com.demo.security.dto.ProductDTO;
+import com.demo.security.entity.Language;
+import com.demo.security.entity.Product;
+import com.demo.security.entity.ProductCategory;
+import com.demo.security.entity.ProductCategoryTranslation;
+import com.demo.security.entity.ProductCategoryTranslationId;
+import com.demo.security.entity.ProductTranslation;
+import com.demo.security.entity.ProductTranslationId;
+import com.demo.security.event.CatalogChangedEvent;
+import com.demo.security.repository.ProductCategoryRepository;
+import com.demo.security.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Loads the public catalog the way it is served, against in-memory H2 in MySQL mode;
+// the schema is generated from the entities
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:catalog;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CatalogServiceTests {
+
+	private static final Set<String> LANGUAGES = Set.of("vi", "en");
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductCategoryRepository categoryRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Language vietnamese;
+	private Language english;
+
+	@BeforeEach
+	void setUp() {
+		vietnamese = entityManager.persist(new Language("vi", "Tiếng Việt"));
+		english = entityManager.persist(new Language("en", "English"));
+	}
+
+	@Test
+	void fullRebuildUsesTheSameStatementCountForOneOrManyProducts() {
+		ProductCategory category = category("Trà");
+		product(category, 1);
+		long forOne = statementsToRebuild(1);
+
+		// Measuring cleared the persistence context
+		vietnamese = entityManager.find(Language.class, "vi");
+		category = entityManager.find(ProductCategory.class, category.getProductCategoryID());
+		for (int i = 2; i <= 25; i++) {
+			product(category, i);
+		}
+		long forMany = statementsToRebuild(25);
+
+		// Products and categories per language, plus the newest update time for the version
+		assertThat(forOne).isEqualTo(2L * LANGUAGES.size() + 1);
+		assertThat(forMany).isEqualTo(forOne);
+	}
+
+	@Test
+	void productChangeReloadsOneRowPerLanguage() {
+		ProductCategory category = category("Trà");
+		product(category, 1);
+		CatalogService catalogService = catalogService();
+		catalogService.rebuildAll();
+		Product added = product(category, 2);
+
+		Statistics statistics = clearedStatistics();
+		catalogService.onCatalogChanged(CatalogChangedEvent.product(added.getProductID()));
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(LANGUAGES.size());
+		assertThat(catalogService.getProduct("en", added.getProductID())).isPresent();
+	}
+
+	@Test
+	void catalogFallsBackToTheDefaultLanguage() {
+		ProductCategory category = category("Trà");
+		Product product = product(category, 1);
+		entityManager.persist(new ProductTranslation(new ProductTranslationId(product.getProductID(), "en"),
+				product, english, "Tea 1", null));
+		product(category, 2);
+		entityManager.flush();
+		entityManager.clear();
+
+		CatalogService catalogService = catalogService();
+		catalogService.rebuildAll();
+		List<ProductDTO> products = catalogService.getProducts("en");
+
+		assertThat(products).extracting(ProductDTO::getProductName).containsExactly("Tea 1", "Sản phẩm 2");
+		assertThat(products).extracting(ProductDTO::getCategoryName).containsOnly("Trà");
+	}
+
+	private long statementsToRebuild(int expectedProducts) {
+		CatalogService catalogService = catalogService();
+		Statistics statistics = clearedStatistics();
+
+		catalogService.rebuildAll();
+
+		assertThat(catalogService.getProducts("vi")).hasSize(expectedProducts);
+		assertThat(catalogService.getProducts("en")).hasSize(expectedProducts);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Statistics clearedStatistics() {
+		entityManager.flush();
+		entityManager.clear();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+
+	private CatalogService catalogService() {
+		ReferenceDataRegistry referenceData = mock(ReferenceDataRegistry.class);
+		when(referenceData.getLanguageIds()).thenReturn(LANGUAGES);
+		CatalogService catalogService = new CatalogService(productRepository, categoryRepository, referenceData, new ObjectMapper());
+		ReflectionTestUtils.setField(catalogService, "fallbackLanguageId", "vi");
+		return catalogService;
+	}
+
+	private ProductCategory category(String name) {
+		ProductCategory category = new ProductCategory();
+		category.setCanBeShipped(true);
+		entityManager.persist(category);
+		entityManager.persist(new ProductCategoryTranslation(
+				new ProductCategoryTranslationId(category.getProductCategoryID(), "vi"), category, vietnamese, name));
+		return category;
+	}
+
+	private Product product(ProductCategory category, int number) {
+		Product product = new Product();
+		product.setPrice(BigDecimal.valueOf(10_000L * number));
+		product.setCategory(category);
+		entityManager.persist(product);
+		entityManager.persist(new ProductTranslation(new ProductTranslationId(product.getProductID(), "vi"),
+				product, vietnamese, "Sản phẩm " + number, null));
+		return product;
+	}
+}